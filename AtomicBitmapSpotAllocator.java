@@ -0,0 +1,226 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe word-level bitmap spot allocator
+ * Same layout as BitmapSpotAllocator, but every bit is claimed with a CAS
+ * on its 64-spot word, so concurrent gates never receive the same spot and
+ * never serialize on a shared lock. The summary bitmap of non-full words
+ * keeps the search at one long per 4096 spots.
+ */
+public class AtomicBitmapSpotAllocator implements SpotAllocator {
+    private final int capacity;
+    private final AtomicLongArray freeBits;  // bit i set -> spot i + 1 is free
+    private final AtomicLongArray freeWords; // bit w set -> freeBits[w] may have a free spot
+    private final AtomicInteger freeCount;
+    
+    public AtomicBitmapSpotAllocator(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        
+        int words = (capacity + 63) >>> 6;
+        this.capacity = capacity;
+        this.freeBits = new AtomicLongArray(words);
+        this.freeWords = new AtomicLongArray((words + 63) >>> 6);
+        this.freeCount = new AtomicInteger(capacity);
+        
+        // Mark every spot free, trimming the unused tail of the last word
+        long[] summary = new long[freeWords.length()];
+        for (int w = 0; w < words; w++) {
+            freeBits.set(w, -1L);
+            summary[w >>> 6] |= 1L << w;
+        }
+        if ((capacity & 63) != 0) {
+            freeBits.set(words - 1, (1L << (capacity & 63)) - 1);
+        }
+        for (int s = 0; s < summary.length; s++) {
+            freeWords.set(s, summary[s]);
+        }
+    }
+    
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    @Override
+    public int getFreeCount() {
+        return freeCount.get();
+    }
+    
+    @Override
+    public boolean isFree(int spotNumber) {
+        if (spotNumber < 1 || spotNumber > capacity) {
+            return false;
+        }
+        int index = spotNumber - 1;
+        return (freeBits.get(index >>> 6) & (1L << index)) != 0;
+    }
+    
+    @Override
+    public int peekFree() {
+        for (int word = nextFreeWord(0); word >= 0; word = nextFreeWord(word + 1)) {
+            long bits = freeBits.get(word);
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits) + 1;
+            }
+        }
+        return -1;
+    }
+    
+    @Override
+    public int nextOccupied(int fromSpot) {
+        // Walks the words directly (64 spots per read): a used-word summary
+        // would need its own CAS protocol next to the free one
+        int index = Math.max(fromSpot, 1) - 1;
+        if (index >= capacity) {
+            return -1;
+        }
+        
+        int words = freeBits.length();
+        long lastMask = (capacity & 63) == 0 ? -1L : (1L << (capacity & 63)) - 1;
+        long from = -1L << index;
+        for (int word = index >>> 6; word < words; word++) {
+            long taken = ~freeBits.get(word) & from;
+            if (word == words - 1) {
+                taken &= lastMask;
+            }
+            if (taken != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(taken) + 1;
+            }
+            from = -1L;
+        }
+        return -1;
+    }
+    
+    @Override
+    public int allocate() {
+        if (freeCount.get() == 0) {
+            return -1;
+        }
+        
+        int word = nextFreeWord(0);
+        while (word >= 0) {
+            long bits = freeBits.get(word);
+            if (bits == 0) {
+                clearSummary(word);
+                word = nextFreeWord(word + 1);
+                continue;
+            }
+            
+            long bit = Long.lowestOneBit(bits);
+            if (freeBits.compareAndSet(word, bits, bits & ~bit)) {
+                freeCount.decrementAndGet();
+                if (bits == bit) {
+                    clearSummary(word);
+                }
+                return (word << 6) + Long.numberOfTrailingZeros(bit) + 1;
+            }
+            // Lost the race for this word, re-read it and try again
+        }
+        return -1;
+    }
+    
+    @Override
+    public boolean claim(int spotNumber) {
+        if (spotNumber < 1 || spotNumber > capacity) {
+            return false;
+        }
+        
+        int index = spotNumber - 1;
+        int word = index >>> 6;
+        long bit = 1L << index;
+        while (true) {
+            long bits = freeBits.get(word);
+            if ((bits & bit) == 0) {
+                return false;
+            }
+            if (freeBits.compareAndSet(word, bits, bits & ~bit)) {
+                freeCount.decrementAndGet();
+                if (bits == bit) {
+                    clearSummary(word);
+                }
+                return true;
+            }
+        }
+    }
+    
+    @Override
+    public boolean release(int spotNumber) {
+        if (spotNumber < 1 || spotNumber > capacity) {
+            return false;
+        }
+        
+        int index = spotNumber - 1;
+        int word = index >>> 6;
+        long bit = 1L << index;
+        while (true) {
+            long bits = freeBits.get(word);
+            if ((bits & bit) != 0) {
+                return false;
+            }
+            if (freeBits.compareAndSet(word, bits, bits | bit)) {
+                break;
+            }
+        }
+        
+        // Publish the word in the summary only after its bit is visible
+        setSummary(word);
+        freeCount.incrementAndGet();
+        return true;
+    }
+    
+    /**
+     * Find the first word at or after start flagged in the summary, or -1
+     */
+    private int nextFreeWord(int start) {
+        int words = freeBits.length();
+        if (start >= words) {
+            return -1;
+        }
+        
+        int s = start >>> 6;
+        long summary = freeWords.get(s) & (-1L << (start & 63));
+        while (true) {
+            if (summary != 0) {
+                return (s << 6) + Long.numberOfTrailingZeros(summary);
+            }
+            if (++s >= freeWords.length()) {
+                return -1;
+            }
+            summary = freeWords.get(s);
+        }
+    }
+    
+    /**
+     * Drop a word from the summary, re-flagging it if a release raced in
+     */
+    private void clearSummary(int word) {
+        long bit = 1L << word;
+        int s = word >>> 6;
+        long summary;
+        do {
+            summary = freeWords.get(s);
+            if ((summary & bit) == 0) {
+                return;
+            }
+        } while (!freeWords.compareAndSet(s, summary, summary & ~bit));
+        
+        if (freeBits.get(word) != 0) {
+            setSummary(word);
+        }
+    }
+    
+    private void setSummary(int word) {
+        long bit = 1L << word;
+        int s = word >>> 6;
+        long summary;
+        do {
+            summary = freeWords.get(s);
+            if ((summary & bit) != 0) {
+                return;
+            }
+        } while (!freeWords.compareAndSet(s, summary, summary | bit));
+    }
+}
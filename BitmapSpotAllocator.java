@@ -0,0 +1,179 @@
+/**
+ * Word-level bitmap spot allocator
+ * One bit per spot (set = free) plus a summary bitmap of words that still
+ * have a free bit, so finding a spot skips 4096 full spots per summary word.
+ * A "next free" hint remembers the lowest word that can hold a free spot.
+ * A second summary of words with a taken bit walks occupied spots in order,
+ * skipping 4096 empty spots per summary word.
+ */
+public class BitmapSpotAllocator implements SpotAllocator {
+    private final int capacity;
+    private final long[] freeBits;  // bit i set -> spot i + 1 is free
+    private final long[] freeWords; // bit w set -> freeBits[w] has a free spot
+    private final long[] usedWords; // bit w set -> freeBits[w] has a taken spot
+    private int freeCount;
+    private int hintWord;           // no free spot lives below this word
+    
+    public BitmapSpotAllocator(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        
+        int words = (capacity + 63) >>> 6;
+        this.capacity = capacity;
+        this.freeBits = new long[words];
+        this.freeWords = new long[(words + 63) >>> 6];
+        this.usedWords = new long[freeWords.length];
+        this.freeCount = capacity;
+        this.hintWord = 0;
+        
+        // Mark every spot free, trimming the unused tail of the last word
+        for (int w = 0; w < words; w++) {
+            freeBits[w] = -1L;
+            freeWords[w >>> 6] |= 1L << w;
+        }
+        if ((capacity & 63) != 0) {
+            freeBits[words - 1] = (1L << (capacity & 63)) - 1;
+        }
+    }
+    
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    @Override
+    public int getFreeCount() {
+        return freeCount;
+    }
+    
+    @Override
+    public boolean isFree(int spotNumber) {
+        if (spotNumber < 1 || spotNumber > capacity) {
+            return false;
+        }
+        int index = spotNumber - 1;
+        return (freeBits[index >>> 6] & (1L << index)) != 0;
+    }
+    
+    @Override
+    public int peekFree() {
+        int index = findFreeIndex();
+        return index < 0 ? -1 : index + 1;
+    }
+    
+    @Override
+    public int nextOccupied(int fromSpot) {
+        int index = Math.max(fromSpot, 1) - 1;
+        if (index >= capacity) {
+            return -1;
+        }
+        
+        // Rest of the starting word first
+        int word = index >>> 6;
+        long taken = ~freeBits[word] & wordMask(word) & (-1L << index);
+        if (taken != 0) {
+            return (word << 6) + Long.numberOfTrailingZeros(taken) + 1;
+        }
+        
+        // Then the next word flagged in the used summary
+        int start = word + 1;
+        if (start >= freeBits.length) {
+            return -1;
+        }
+        long summary = usedWords[start >>> 6] & (-1L << start);
+        for (int s = start >>> 6; ; ) {
+            if (summary != 0) {
+                word = (s << 6) + Long.numberOfTrailingZeros(summary);
+                taken = ~freeBits[word] & wordMask(word);
+                return (word << 6) + Long.numberOfTrailingZeros(taken) + 1;
+            }
+            if (++s >= usedWords.length) {
+                return -1;
+            }
+            summary = usedWords[s];
+        }
+    }
+    
+    @Override
+    public int allocate() {
+        int index = findFreeIndex();
+        if (index < 0) {
+            return -1;
+        }
+        take(index);
+        return index + 1;
+    }
+    
+    @Override
+    public boolean claim(int spotNumber) {
+        if (!isFree(spotNumber)) {
+            return false;
+        }
+        take(spotNumber - 1);
+        return true;
+    }
+    
+    @Override
+    public boolean release(int spotNumber) {
+        if (spotNumber < 1 || spotNumber > capacity || isFree(spotNumber)) {
+            return false;
+        }
+        
+        int index = spotNumber - 1;
+        int word = index >>> 6;
+        freeBits[word] |= 1L << index;
+        freeWords[word >>> 6] |= 1L << word;
+        if (freeBits[word] == wordMask(word)) {
+            usedWords[word >>> 6] &= ~(1L << word);
+        }
+        freeCount++;
+        
+        if (word < hintWord) {
+            hintWord = word;
+        }
+        return true;
+    }
+    
+    /**
+     * Find the lowest free bit index, starting from the hint
+     */
+    private int findFreeIndex() {
+        if (freeCount == 0) {
+            return -1;
+        }
+        
+        for (int s = hintWord >>> 6; s < freeWords.length; s++) {
+            long summary = freeWords[s];
+            if (summary != 0) {
+                int word = (s << 6) + Long.numberOfTrailingZeros(summary);
+                hintWord = word;
+                return (word << 6) + Long.numberOfTrailingZeros(freeBits[word]);
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Mark a free bit index as taken
+     */
+    private void take(int index) {
+        int word = index >>> 6;
+        freeBits[word] &= ~(1L << index);
+        if (freeBits[word] == 0) {
+            freeWords[word >>> 6] &= ~(1L << word);
+        }
+        usedWords[word >>> 6] |= 1L << word;
+        freeCount--;
+    }
+    
+    /**
+     * Bits of a word that map to real spots (the last word may be partial)
+     */
+    private long wordMask(int word) {
+        if (word == freeBits.length - 1 && (capacity & 63) != 0) {
+            return (1L << (capacity & 63)) - 1;
+        }
+        return -1L;
+    }
+}
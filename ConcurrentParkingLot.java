@@ -0,0 +1,240 @@
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe parking engine for several gate terminals at once
+ * Same operations as ParkingLot, without a global lock:
+ * - plates are reserved with putIfAbsent, so one plate never parks twice
+ * - spots are claimed with a CAS on the allocator bitmap, so one spot is never handed out twice
+ * - tickets are published and removed with atomic array slots, the plate
+ *   mapped to its spot before the ticket becomes visible to checkouts
+ */
+public class ConcurrentParkingLot {
+    private static final int DEFAULT_TOTAL_SPOTS = 10;
+    private static final int DEFAULT_WAITING_CAPACITY = 1024;
+    private static final int PENDING = 0; // plate reserved, spot not yet assigned
+    
+    private final AtomicReferenceArray<ParkingTicket> parkedVehicles; // spotNumber - 1 -> ParkingTicket
+    private final ConcurrentHashMap<String, Integer> vehicleToSpot;   // vehiclePlate -> spotNumber
+    private final WaitingQueue<String> waitingList;
+    private final SpotAllocator allocator;
+    
+    /**
+     * Create a lot sized from the spot.capacity property (default 10)
+     */
+    public ConcurrentParkingLot() {
+        this(Integer.getInteger(ParkingLot.CAPACITY_PROPERTY, DEFAULT_TOTAL_SPOTS));
+    }
+    
+    /**
+     * Create a lot with the given number of spots
+     */
+    public ConcurrentParkingLot(int totalSpots) {
+        this.allocator = new AtomicBitmapSpotAllocator(totalSpots);
+        this.parkedVehicles = new AtomicReferenceArray<>(totalSpots);
+        this.vehicleToSpot = new ConcurrentHashMap<>();
+        this.waitingList = new WaitingQueue<>(DEFAULT_WAITING_CAPACITY);
+    }
+    
+    /**
+     * Find the first available parking spot (a hint, it may be taken by the time it is used)
+     */
+    public int findAvailableSpot() {
+        return allocator.peekFree();
+    }
+    
+    /**
+     * Check if a vehicle is already parked
+     */
+    public boolean isVehicleParked(String vehiclePlate) {
+        Integer spot = vehicleToSpot.get(vehiclePlate);
+        return spot != null && spot != PENDING;
+    }
+    
+    /**
+     * Check in a vehicle atomically
+     */
+    public boolean checkInVehicle(String tenantName, String vehiclePlate) {
+        // Reserve the plate first so two gates cannot park the same vehicle
+        if (vehicleToSpot.putIfAbsent(vehiclePlate, PENDING) != null) {
+            return false;
+        }
+        
+        int availableSpot = allocator.allocate();
+        if (availableSpot == -1) {
+            vehicleToSpot.remove(vehiclePlate, PENDING);
+            waitingList.offer(tenantName + " (" + vehiclePlate + ")");
+            return false;
+        }
+        
+        // Map the plate before the ticket becomes visible: a checkout that wins the
+        // spot right after publication must find the real mapping to remove
+        vehicleToSpot.replace(vehiclePlate, PENDING, availableSpot);
+        parkedVehicles.set(availableSpot - 1, new ParkingTicket(tenantName, vehiclePlate, availableSpot));
+        return true;
+    }
+    
+    /**
+     * Put a previously issued ticket back on its spot, false if its plate or spot is taken
+     */
+    public boolean restoreTicket(ParkingTicket ticket) {
+        String vehiclePlate = ticket.getVehiclePlate();
+        if (vehicleToSpot.putIfAbsent(vehiclePlate, PENDING) != null) {
+            return false;
+        }
+        if (!allocator.claim(ticket.getSpotNumber())) {
+            vehicleToSpot.remove(vehiclePlate, PENDING);
+            return false;
+        }
+        
+        vehicleToSpot.replace(vehiclePlate, PENDING, ticket.getSpotNumber());
+        parkedVehicles.set(ticket.getSpotNumber() - 1, ticket);
+        return true;
+    }
+    
+    /**
+     * Check out a vehicle atomically, only one caller wins a given spot
+     */
+    public ParkingTicket checkOutVehicle(int spotNumber) {
+        if (spotNumber < 1 || spotNumber > parkedVehicles.length()) {
+            return null;
+        }
+        
+        ParkingTicket ticket = parkedVehicles.getAndSet(spotNumber - 1, null);
+        if (ticket == null) {
+            return null; // Spot not occupied
+        }
+        
+        ticket.setCheckOutTime();
+        ticket.setActive(false);
+        
+        // Drop the plate before the spot goes back to the pool
+        vehicleToSpot.remove(ticket.getVehiclePlate(), spotNumber);
+        allocator.release(spotNumber);
+        return ticket;
+    }
+    
+    /**
+     * Search for a vehicle
+     */
+    public ParkingTicket searchVehicle(String vehiclePlate) {
+        Integer spot = vehicleToSpot.get(vehiclePlate);
+        if (spot == null || spot == PENDING) {
+            return null;
+        }
+        // The vehicle may have left and the spot been reused since the lookup
+        ParkingTicket ticket = parkedVehicles.get(spot - 1);
+        return ticket != null && ticket.getVehiclePlate().equals(vehiclePlate) ? ticket : null;
+    }
+    
+    /**
+     * Get parking ticket for a specific spot
+     */
+    public ParkingTicket getTicketBySpot(int spotNumber) {
+        if (spotNumber < 1 || spotNumber > parkedVehicles.length()) {
+            return null;
+        }
+        return parkedVehicles.get(spotNumber - 1);
+    }
+    
+    /**
+     * Get all parked vehicles in spot order (weakly consistent under concurrent updates)
+     */
+    public ArrayList<ParkingTicket> getAllParkedVehicles() {
+        ArrayList<ParkingTicket> tickets = new ArrayList<>(getOccupiedSpotsCount());
+        forEachParkedVehicle(1, getTotalSpots(), tickets::add);
+        return tickets;
+    }
+    
+    /**
+     * Get parked vehicles on spots fromSpot..toSpot (inclusive), in spot order
+     */
+    public ArrayList<ParkingTicket> getParkedVehicles(int fromSpot, int toSpot) {
+        ArrayList<ParkingTicket> tickets = new ArrayList<>();
+        forEachParkedVehicle(fromSpot, toSpot, tickets::add);
+        return tickets;
+    }
+    
+    /**
+     * Visit parked vehicles on spots fromSpot..toSpot (inclusive) in spot order, without copying
+     * Spots claimed but not yet published by a concurrent check-in are skipped.
+     */
+    public void forEachParkedVehicle(int fromSpot, int toSpot, Consumer<ParkingTicket> action) {
+        for (int spot = allocator.nextOccupied(fromSpot); spot != -1 && spot <= toSpot;
+                spot = allocator.nextOccupied(spot + 1)) {
+            ParkingTicket ticket = parkedVehicles.get(spot - 1);
+            if (ticket != null) {
+                action.accept(ticket);
+            }
+        }
+    }
+    
+    /**
+     * Get available spots count
+     */
+    public int getAvailableSpotsCount() {
+        return allocator.getFreeCount();
+    }
+    
+    /**
+     * Get occupied spots count
+     */
+    public int getOccupiedSpotsCount() {
+        return allocator.getCapacity() - allocator.getFreeCount();
+    }
+    
+    /**
+     * Get total spots
+     */
+    public int getTotalSpots() {
+        return allocator.getCapacity();
+    }
+    
+    /**
+     * Get waiting queue info
+     */
+    public int getWaitingListSize() {
+        return waitingList.size();
+    }
+    
+    /**
+     * Get first person in waiting queue
+     */
+    public String getNextWaiting() {
+        return waitingList.peek();
+    }
+    
+    /**
+     * Remove from waiting queue
+     */
+    public void processWaiting() {
+        waitingList.poll();
+    }
+    
+    /**
+     * Check if lot is full
+     */
+    public boolean isLotFull() {
+        return allocator.getFreeCount() == 0;
+    }
+    
+    /**
+     * Get all waiting list entries
+     */
+    public ArrayList<String> getWaitingList() {
+        ArrayList<String> entries = new ArrayList<>(waitingList.size());
+        for (String entry : waitingList) {
+            entries.add(entry);
+        }
+        return entries;
+    }
+    
+    /**
+     * Iterate waiting list entries in queue order without copying them (weakly consistent)
+     */
+    public Iterable<String> getWaitingEntries() {
+        return waitingList;
+    }
+}
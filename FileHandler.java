@@ -1,4 +1,6 @@
 import java.io.*;
+import java.sql.DriverManager;
+import java.sql.SQLException;
 import java.util.ArrayList;
 
 /**
@@ -6,16 +8,105 @@ import java.util.ArrayList;
  */
 public class FileHandler {
     private static final String DATA_FILE = "parking_data.dat";
+    private static final String JOURNAL_FILE = "parking_journal.log";
+    
+    private static final String LOG_FILE = "parking_transactions.log";
+    private static final int LOG_BUFFER_EVENTS = 8192;
+    private static final int LOG_BATCH_EVENTS = 1024;
+    private static final long LOG_SYNC_INTERVAL_MILLIS = 1000;
+    
+    // Background transaction logger, started on first use
+    private static TransactionLogger transactionLogger;
+    
+    // Journal currently recording a lot's changes, if any
+    private static ParkingJournal journal;
+    private static ParkingLot journaledLot;
+    
+    // Write-behind database fed from the journal, if any
+    private static TicketDatabaseWriter ticketDatabase;
+    
+    /**
+     * Replay saved data into an empty lot and journal its changes from now on
+     */
+    public static boolean openJournal(ParkingLot parkingLot) {
+        closeJournal();
+        try {
+            journal = ParkingJournal.open(parkingLot, new File(DATA_FILE), new File(JOURNAL_FILE),
+                    ParkingJournal.DEFAULT_COMPACT_EVERY, true);
+            journaledLot = parkingLot;
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error opening parking journal: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Persist the open journal's changes to a database as well (write-behind)
+     * The database is first brought up to date with what the journal has.
+     */
+    public static boolean openDatabase(String jdbcUrl) {
+        closeDatabase();
+        if (journal == null) {
+            System.err.println("Error opening ticket database: no journal open");
+            return false;
+        }
+        try {
+            ticketDatabase = TicketDatabaseWriter.open(DriverManager.getConnection(jdbcUrl), journal,
+                    new File(DATA_FILE), new File(JOURNAL_FILE),
+                    TicketDatabaseWriter.DEFAULT_CAPACITY, TicketDatabaseWriter.DEFAULT_MAX_BATCH);
+            return true;
+        } catch (SQLException | IOException e) {
+            System.err.println("Error opening ticket database: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Store the database's pending changes and close it
+     */
+    public static void closeDatabase() {
+        if (ticketDatabase == null) {
+            return;
+        }
+        try {
+            ticketDatabase.close();
+        } catch (IOException e) {
+            System.err.println("Error closing ticket database: " + e.getMessage());
+        } finally {
+            ticketDatabase = null;
+        }
+    }
+    
+    /**
+     * Compact and close the open journal (and the database fed from it)
+     */
+    public static void closeJournal() {
+        closeDatabase();
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Error closing parking journal: " + e.getMessage());
+        } finally {
+            journal = null;
+            journaledLot = null;
+        }
+    }
     
     /**
      * Save parking lot data to file
+     * A journaled lot is compacted into its snapshot, any other lot replaces the saved data.
      */
     public static boolean saveParkingData(ParkingLot parkingLot) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(DATA_FILE))) {
-            // Save all parked vehicles
-            ArrayList<ParkingTicket> vehicles = parkingLot.getAllParkedVehicles();
-            oos.writeObject(vehicles);
-            oos.writeInt(parkingLot.getTotalSpots());
+        try {
+            if (journal != null && journaledLot == parkingLot) {
+                journal.compact();
+            } else {
+                ParkingJournal.writeSnapshot(new File(DATA_FILE), new File(JOURNAL_FILE), parkingLot);
+            }
             return true;
         } catch (IOException e) {
             System.err.println("Error saving parking data: " + e.getMessage());
@@ -24,20 +115,12 @@ public class FileHandler {
     }
     
     /**
-     * Load parking lot data from file
+     * Load parking lot data from file (snapshot plus journal)
      */
-    @SuppressWarnings("unchecked")
     public static ArrayList<ParkingTicket> loadParkingData() {
-        File file = new File(DATA_FILE);
-        
-        if (!file.exists()) {
-            return new ArrayList<>();
-        }
-        
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(DATA_FILE))) {
-            ArrayList<ParkingTicket> vehicles = (ArrayList<ParkingTicket>) ois.readObject();
-            return vehicles != null ? vehicles : new ArrayList<>();
-        } catch (IOException | ClassNotFoundException e) {
+        try {
+            return ParkingJournal.readTickets(new File(DATA_FILE), new File(JOURNAL_FILE));
+        } catch (IOException e) {
             System.err.println("Error loading parking data: " + e.getMessage());
             return new ArrayList<>();
         }
@@ -45,25 +128,43 @@ public class FileHandler {
     
     /**
      * Save transaction log
+     * The event is queued for the background logger, which batches writes and
+     * syncs at most once per second. Returns false if the event was dropped.
      */
     public static boolean logTransaction(ParkingTicket ticket, String action) {
-        String logFile = "parking_transactions.log";
-        
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(logFile, true))) {
-            String logEntry = String.format("[%s] Action: %s | Tenant: %s | Plate: %s | Spot: %d | Check-in: %s%n",
-                    java.time.LocalDateTime.now(),
-                    action,
-                    ticket.getTenantName(),
-                    ticket.getVehiclePlate(),
-                    ticket.getSpotNumber(),
-                    ticket.getCheckInTimeString());
-            
-            writer.write(logEntry);
-            return true;
+        TransactionLogger logger = getTransactionLogger();
+        return logger != null && logger.log(ticket, action);
+    }
+    
+    /**
+     * Drain and close the background transaction logger
+     */
+    public static synchronized void closeTransactionLog() {
+        if (transactionLogger == null) {
+            return;
+        }
+        try {
+            transactionLogger.close();
         } catch (IOException e) {
-            System.err.println("Error logging transaction: " + e.getMessage());
-            return false;
+            System.err.println("Error closing transaction log: " + e.getMessage());
+        } finally {
+            transactionLogger = null;
+        }
+    }
+    
+    private static synchronized TransactionLogger getTransactionLogger() {
+        if (transactionLogger == null) {
+            if (!LogShutdownHook.REGISTERED) {
+                return null; // the JVM is shutting down, nothing would drain a new logger
+            }
+            try {
+                transactionLogger = new TransactionLogger(new File(LOG_FILE), LOG_BUFFER_EVENTS,
+                        LOG_BATCH_EVENTS, LOG_SYNC_INTERVAL_MILLIS, true);
+            } catch (IOException e) {
+                System.err.println("Error logging transaction: " + e.getMessage());
+            }
         }
+        return transactionLogger;
     }
     
     /**
@@ -74,5 +175,26 @@ public class FileHandler {
         if (dataFile.exists()) {
             dataFile.delete();
         }
+        File journalFile = new File(JOURNAL_FILE);
+        if (journalFile.exists()) {
+            journalFile.delete();
+        }
+    }
+    
+    /**
+     * Closes the transaction log at exit, so queued events reach the file even if nobody closes it
+     * Registered once, when the log is first opened; reopening after a close reuses it.
+     */
+    private static final class LogShutdownHook {
+        static final boolean REGISTERED = register();
+        
+        private static boolean register() {
+            try {
+                Runtime.getRuntime().addShutdownHook(new Thread(FileHandler::closeTransactionLog));
+                return true;
+            } catch (IllegalStateException e) {
+                return false; // already shutting down
+            }
+        }
     }
 }
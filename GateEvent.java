@@ -0,0 +1,125 @@
+/**
+ * One entry or exit recorded at a gate, for ParkingLot.applyBatch
+ * Gates that lose connectivity buffer these and replay them in order. The
+ * event time is when it happened at the gate (0 = when it is applied). An
+ * exit names the spot, or the plate when the gate only reads plates; an
+ * entry may name a booked spot.
+ */
+public class GateEvent {
+    
+    public enum Type {
+        CHECK_IN,
+        CHECK_OUT
+    }
+    
+    /**
+     * What applying one event did
+     */
+    public enum Outcome {
+        PARKED(true),
+        WAITLISTED(false),
+        ALREADY_PARKED(false),
+        CHECKED_OUT(true),
+        NOT_PARKED(false);
+        
+        private final boolean success;
+        
+        Outcome(boolean success) {
+            this.success = success;
+        }
+        
+        public boolean isSuccess() {
+            return success;
+        }
+    }
+    
+    private final Type type;
+    private final String tenantName;
+    private final String vehiclePlate;
+    private final int spotNumber;
+    private final long eventMillis;
+    
+    private GateEvent(Type type, String tenantName, String vehiclePlate, int spotNumber, long eventMillis) {
+        this.type = type;
+        this.tenantName = tenantName;
+        this.vehiclePlate = vehiclePlate;
+        this.spotNumber = spotNumber;
+        this.eventMillis = eventMillis;
+    }
+    
+    /**
+     * Entry of a vehicle at the given time (0 = now)
+     */
+    public static GateEvent checkIn(String tenantName, String vehiclePlate, long eventMillis) {
+        return new GateEvent(Type.CHECK_IN, tenantName, vehiclePlate, 0, eventMillis);
+    }
+    
+    /**
+     * Entry of a vehicle onto a booked spot at the given time (0 = now)
+     */
+    public static GateEvent checkInAt(String tenantName, String vehiclePlate, int spotNumber, long eventMillis) {
+        return new GateEvent(Type.CHECK_IN, tenantName, vehiclePlate, spotNumber, eventMillis);
+    }
+    
+    /**
+     * Exit from a spot at the given time (0 = now)
+     */
+    public static GateEvent checkOut(int spotNumber, long eventMillis) {
+        return new GateEvent(Type.CHECK_OUT, null, null, spotNumber, eventMillis);
+    }
+    
+    /**
+     * Exit of a vehicle identified by plate at the given time (0 = now)
+     */
+    public static GateEvent checkOutPlate(String vehiclePlate, long eventMillis) {
+        return new GateEvent(Type.CHECK_OUT, null, vehiclePlate, 0, eventMillis);
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public String getTenantName() {
+        return tenantName;
+    }
+    
+    public String getVehiclePlate() {
+        return vehiclePlate;
+    }
+    
+    /**
+     * Get the spot of an exit or booked entry, 0 when the event names none
+     */
+    public int getSpotNumber() {
+        return spotNumber;
+    }
+    
+    public long getEventMillis() {
+        return eventMillis;
+    }
+    
+    /**
+     * Result of one event: outcome and the ticket as the event left it (parked or closed), if any
+     */
+    public static class Result {
+        private final Outcome outcome;
+        private final ParkingTicket ticket;
+        
+        public Result(Outcome outcome, ParkingTicket ticket) {
+            this.outcome = outcome;
+            this.ticket = ticket;
+        }
+        
+        public Outcome getOutcome() {
+            return outcome;
+        }
+        
+        public boolean isSuccess() {
+            return outcome.isSuccess();
+        }
+        
+        public ParkingTicket getTicket() {
+            return ticket;
+        }
+    }
+}
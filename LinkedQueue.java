@@ -2,7 +2,9 @@ import java.util.ArrayList;
 
 /**
  * Custom Queue implementation
+ * @deprecated Not thread-safe and allocates a node per entry, use WaitingQueue
  */
+@Deprecated
 public class LinkedQueue<T> {
     private Node<T> front;
     private Node<T> rear;
@@ -0,0 +1,103 @@
+/**
+ * Fixed-size log-linear histogram of non-negative long values
+ * Each power of two is split into 64 linear sub-buckets, so any recorded
+ * value is reported within 1/64 (about 1.6%) of its true value while the
+ * whole long range fits in 3,712 counters. Recording is O(1), quantiles scan
+ * the fixed counter array, and two histograms merge by adding counters, so
+ * per-shard or per-period histograms can be combined without the raw values.
+ */
+public class LogLinearHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    
+    /**
+     * Record one value (negative values count as 0)
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts[indexOf(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+    
+    /**
+     * Add every value recorded in another histogram
+     */
+    public void merge(LogLinearHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+    
+    /**
+     * Get number of recorded values
+     */
+    public long getCount() {
+        return count;
+    }
+    
+    /**
+     * Get exact mean of recorded values, 0 if empty
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+    
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+    
+    public long getMax() {
+        return max;
+    }
+    
+    /**
+     * Get the value at a quantile (0.5 = median, 0.99 = p99), 0 if empty
+     */
+    public long getQuantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        if (rank >= count) {
+            return max;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Middle of the bucket, clamped to the exact extremes
+                return Math.max(min, Math.min(max, midpointOf(i)));
+            }
+        }
+        return max;
+    }
+    
+    /**
+     * Bucket for a value: exact below 128, then 64 buckets per power of two
+     */
+    private static int indexOf(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+    
+    private static long midpointOf(int index) {
+        int shift = Math.max(0, (index >>> SUB_BUCKET_BITS) - 1);
+        long lower = (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+}
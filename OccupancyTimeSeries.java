@@ -0,0 +1,217 @@
+/**
+ * Occupancy, arrivals and departures over time at three resolutions
+ * Fixed-size ring buffers keep the last hour per second, the last day per
+ * minute and the last 30 days per hour. Every event rolls up into all three
+ * rings as it happens (arrival and departure counts, end-of-period and peak
+ * occupancy, occupancy integral for the time-weighted mean), and slots are
+ * recycled as time moves on, so memory is allocated once and reading a trend
+ * is a walk over ready-made slots with no aggregation at query time.
+ * Register it as a ParkingLotListener; methods are synchronized.
+ */
+public class OccupancyTimeSeries implements ParkingLotListener {
+    
+    /**
+     * Ring buffer resolutions
+     */
+    public enum Resolution {
+        SECOND(1000L, 60 * 60),
+        MINUTE(60 * 1000L, 24 * 60),
+        HOUR(60 * 60 * 1000L, 30 * 24);
+        
+        final long periodMillis;
+        final int slots;
+        
+        Resolution(long periodMillis, int slots) {
+            this.periodMillis = periodMillis;
+            this.slots = slots;
+        }
+        
+        public long getPeriodMillis() {
+            return periodMillis;
+        }
+        
+        public int getSlots() {
+            return slots;
+        }
+    }
+    
+    /**
+     * Receives one period of a series, oldest first
+     */
+    public interface SlotVisitor {
+        void visit(long startMillis, int arrivals, int departures,
+                   int endOccupancy, int peakOccupancy, double averageOccupancy);
+    }
+    
+    private final Ring[] rings;
+    private int occupied;
+    
+    /**
+     * Start recording with the lot's current occupancy
+     */
+    public OccupancyTimeSeries(int occupiedSpots) {
+        this.occupied = occupiedSpots;
+        Resolution[] resolutions = Resolution.values();
+        this.rings = new Ring[resolutions.length];
+        for (int i = 0; i < resolutions.length; i++) {
+            rings[i] = new Ring(resolutions[i]);
+        }
+    }
+    
+    @Override
+    public void onCheckIn(ParkingTicket ticket) {
+        recordArrival(ticket.getCheckInMillis());
+    }
+    
+    @Override
+    public void onCheckOut(ParkingTicket ticket) {
+        recordDeparture(ticket.getCheckOutMillis());
+    }
+    
+    /**
+     * Record a vehicle arriving at the given time
+     */
+    public synchronized void recordArrival(long epochMillis) {
+        advance(epochMillis);
+        occupied++;
+        for (Ring ring : rings) {
+            ring.arrivals[ring.current]++;
+            ring.occupancyChanged(occupied);
+        }
+    }
+    
+    /**
+     * Record a vehicle leaving at the given time
+     */
+    public synchronized void recordDeparture(long epochMillis) {
+        advance(epochMillis);
+        occupied = Math.max(0, occupied - 1);
+        for (Ring ring : rings) {
+            ring.departures[ring.current]++;
+            ring.occupancyChanged(occupied);
+        }
+    }
+    
+    /**
+     * Get current occupancy as seen by the series
+     */
+    public synchronized int getOccupied() {
+        return occupied;
+    }
+    
+    /**
+     * Visit the latest periods of a series up to now, oldest first
+     * The newest period is still in progress; its mean covers the time so far.
+     */
+    public void forEachSlot(Resolution resolution, int count, SlotVisitor visitor) {
+        forEachSlot(resolution, count, System.currentTimeMillis(), visitor);
+    }
+    
+    /**
+     * Visit the latest periods of a series up to the given time, oldest first
+     */
+    public synchronized void forEachSlot(Resolution resolution, int count, long nowMillis, SlotVisitor visitor) {
+        advance(nowMillis);
+        Ring ring = rings[resolution.ordinal()];
+        if (ring.newest < 0) {
+            return;
+        }
+        
+        int available = (int) Math.min(ring.slots, ring.newest - ring.oldest + 1);
+        int shown = Math.min(count, available);
+        for (int i = shown - 1; i >= 0; i--) {
+            long period = ring.newest - i;
+            int slot = ring.slotOf(period);
+            long startMillis = period * ring.periodMillis;
+            long elapsed = i == 0 ? ring.lastUpdateMillis - startMillis : ring.periodMillis;
+            double average = elapsed > 0 ? (double) ring.occupiedMillis[slot] / elapsed : ring.endOccupancy[slot];
+            visitor.visit(startMillis, ring.arrivals[slot], ring.departures[slot],
+                    ring.endOccupancy[slot], ring.peakOccupancy[slot], average);
+        }
+    }
+    
+    private void advance(long nowMillis) {
+        for (Ring ring : rings) {
+            ring.advance(nowMillis, occupied);
+        }
+    }
+    
+    /**
+     * One resolution: parallel arrays indexed by period modulo slot count
+     */
+    private static class Ring {
+        final long periodMillis;
+        final int slots;
+        final int[] arrivals;
+        final int[] departures;
+        final int[] endOccupancy;
+        final int[] peakOccupancy;
+        final long[] occupiedMillis; // occupancy integrated over the period
+        
+        long oldest = -1;            // first period recorded
+        long newest = -1;            // period of the current slot
+        int current;
+        long lastUpdateMillis;
+        
+        Ring(Resolution resolution) {
+            this.periodMillis = resolution.periodMillis;
+            this.slots = resolution.slots;
+            this.arrivals = new int[slots];
+            this.departures = new int[slots];
+            this.endOccupancy = new int[slots];
+            this.peakOccupancy = new int[slots];
+            this.occupiedMillis = new long[slots];
+        }
+        
+        int slotOf(long period) {
+            return (int) Math.floorMod(period, (long) slots);
+        }
+        
+        /**
+         * Move the current slot up to the period containing nowMillis, closing the ones passed
+         */
+        void advance(long nowMillis, int occupied) {
+            long period = Math.floorDiv(nowMillis, periodMillis);
+            if (newest < 0) {
+                oldest = period;
+                newest = period;
+                current = slotOf(period);
+                open(current, occupied, occupied * (nowMillis - period * periodMillis));
+                lastUpdateMillis = nowMillis;
+                return;
+            }
+            if (period <= newest) {
+                // Same period, or the clock stepped back: keep filling the current slot
+                long now = Math.max(nowMillis, lastUpdateMillis);
+                occupiedMillis[current] += occupied * (now - lastUpdateMillis);
+                lastUpdateMillis = now;
+                return;
+            }
+            
+            // Close the current period, then fill skipped ones with unchanged occupancy
+            occupiedMillis[current] += occupied * ((newest + 1) * periodMillis - lastUpdateMillis);
+            long skipped = Math.min(period - newest - 1, slots);
+            for (long p = period - skipped; p < period; p++) {
+                open(slotOf(p), occupied, occupied * periodMillis);
+            }
+            
+            newest = period;
+            current = slotOf(period);
+            open(current, occupied, occupied * (nowMillis - period * periodMillis));
+            lastUpdateMillis = nowMillis;
+        }
+        
+        void occupancyChanged(int occupied) {
+            endOccupancy[current] = occupied;
+            peakOccupancy[current] = Math.max(peakOccupancy[current], occupied);
+        }
+        
+        private void open(int slot, int occupied, long occupiedSoFar) {
+            arrivals[slot] = 0;
+            departures[slot] = 0;
+            endOccupancy[slot] = occupied;
+            peakOccupancy[slot] = occupied;
+            occupiedMillis[slot] = occupiedSoFar;
+        }
+    }
+}
@@ -0,0 +1,717 @@
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * HTTP front end for one parking lot: the /api/parking endpoints plus a live event stream
+ * Built on the JDK's com.sun.net.httpserver, so it runs from the same sources
+ * as the console system with no framework on the classpath. Every lot access
+ * goes through one engine lock; listeners fire inside it, which keeps event
+ * sequence numbers and snapshots consistent with each other.
+ *
+ * GET /api/parking/events is a Server-Sent Events stream: a snapshot first,
+ * then check-in, check-out and waiting list deltas as they happen. Browsers
+ * resend the last event id on reconnect and only receive what they missed.
+ *
+ * Requests run on virtual threads by default: a request (or an open event
+ * stream) that is blocked waiting costs a small heap object instead of a
+ * platform thread, so thousands of concurrent clients do not need thousands
+ * of OS threads. -Dspot.server.threads=platform switches to a fixed pool of
+ * -Dspot.server.poolSize platform threads (default 200, like a servlet
+ * container) for comparison. Locks are ReentrantLocks, not synchronized, so
+ * a virtual thread waiting for one does not pin its carrier.
+ *
+ * Status and vehicle listings are serialized once per lot version and
+ * served from that copy until the lot changes. They carry an ETag, so a
+ * poller that sends If-None-Match gets a bodiless 304 while nothing moved.
+ *
+ * GET /api/parking/occupancy reads the server's OccupancyTimeSeries rings
+ * (per second, minute or hour), so a trend chart costs a walk over ready
+ * slots rather than an aggregation over tickets.
+ */
+public class ParkingApiServer {
+    public static final int DEFAULT_PORT = 8080;
+    
+    // System properties selecting how requests are executed
+    public static final String THREADS_PROPERTY = "spot.server.threads";
+    public static final String POOL_SIZE_PROPERTY = "spot.server.poolSize";
+    private static final int DEFAULT_POOL_SIZE = 200;
+    private static final int BACKLOG = 1024; // pending connections during a burst of gate requests
+    private static final int MAX_BATCH_EVENTS = 50_000;
+    private static final int DEFAULT_OCCUPANCY_PERIODS = 60;
+    
+    private static final long HEARTBEAT_MILLIS = 15_000;
+    private static final long RECONNECT_MILLIS = 3_000;
+    private static final String WEB_PAGE = "parking.html";
+    
+    private final ParkingLot parkingLot;
+    private final ParkingEventStream events;
+    private final OccupancyTimeSeries occupancy;
+    private final ReentrantLock engineLock = new ReentrantLock();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ThreadMode threadMode;
+    
+    // Serialized listings for the lot version they were built from
+    private volatile CachedJson statusCache;
+    private volatile CachedJson vehiclesCache;
+    private final String etagPrefix = Long.toString(System.currentTimeMillis(), 36); // tags differ after a restart
+    
+    /**
+     * Request execution: one virtual thread per request, or a fixed platform thread pool
+     */
+    public enum ThreadMode {
+        VIRTUAL,
+        PLATFORM;
+        
+        /**
+         * Mode named by the spot.server.threads property (virtual by default)
+         */
+        public static ThreadMode fromProperty() {
+            return valueOf(System.getProperty(THREADS_PROPERTY, "virtual").trim().toUpperCase());
+        }
+    }
+    
+    /**
+     * Serve a lot on the given port (0 = any free port), threads chosen by system properties
+     */
+    public ParkingApiServer(ParkingLot parkingLot, int port) throws IOException {
+        this(parkingLot, port, ThreadMode.fromProperty(), Integer.getInteger(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE));
+    }
+    
+    /**
+     * Serve a lot on the given port (0 = any free port); poolSize only applies to PLATFORM
+     */
+    public ParkingApiServer(ParkingLot parkingLot, int port, ThreadMode threadMode, int poolSize) throws IOException {
+        this.parkingLot = parkingLot;
+        this.events = new ParkingEventStream();
+        parkingLot.addListener(events);
+        this.occupancy = new OccupancyTimeSeries(parkingLot.getOccupiedSpotsCount());
+        parkingLot.addListener(occupancy);
+        
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.createContext("/api/parking/check-in", this::handleCheckIn);
+        server.createContext("/api/parking/check-out", this::handleCheckOut);
+        server.createContext("/api/parking/status", this::handleStatus);
+        server.createContext("/api/parking/search", this::handleSearch);
+        server.createContext("/api/parking/waiting-list", this::handleWaitingList);
+        server.createContext("/api/parking/vehicles", this::handleVehicles);
+        server.createContext("/api/parking/occupancy", this::handleOccupancy);
+        server.createContext("/api/parking/batch", this::handleBatch);
+        server.createContext("/api/parking/events", this::handleEvents);
+        server.createContext("/", this::handlePage);
+        
+        // Each open event stream holds its thread for as long as the screen is connected
+        this.threadMode = threadMode;
+        this.executor = threadMode == ThreadMode.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(poolSize);
+        server.setExecutor(executor);
+    }
+    
+    public void start() {
+        server.start();
+    }
+    
+    /**
+     * Stop accepting requests and close open event streams
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Get the port actually bound
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    public ParkingEventStream getEvents() {
+        return events;
+    }
+    
+    public OccupancyTimeSeries getOccupancy() {
+        return occupancy;
+    }
+    
+    public ThreadMode getThreadMode() {
+        return threadMode;
+    }
+    
+    private void handleCheckIn(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "POST")) {
+            return;
+        }
+        Map<String, String> params = readParams(exchange);
+        String tenantName = params.getOrDefault("tenantName", "").trim();
+        String vehiclePlate = params.getOrDefault("vehiclePlate", "").trim().toUpperCase();
+        
+        StringBuilder json = new StringBuilder(256);
+        if (tenantName.isEmpty() || vehiclePlate.isEmpty()) {
+            appendResult(json, false, "Tenant name and vehicle plate are required.");
+            sendJson(exchange, 400, json.append('}'));
+            return;
+        }
+        
+        int status = 200;
+        engineLock.lock();
+        try {
+            int waitingBefore = parkingLot.getWaitingListSize();
+            if (parkingLot.isVehicleParked(vehiclePlate)) {
+                appendResult(json, false, "Vehicle with plate " + vehiclePlate + " is already parked.");
+            } else if (parkingLot.checkInVehicle(tenantName, vehiclePlate)) {
+                ParkingTicket ticket = parkingLot.searchVehicle(vehiclePlate);
+                appendResult(json, true, "Check-in successful! Spot: #" + ticket.getSpotNumber());
+                json.append(",\"ticket\":");
+                ParkingJson.appendTicket(json, ticket);
+            } else if (parkingLot.getWaitingListSize() > waitingBefore) {
+                appendResult(json, false, "Lot is full. Added to waiting list (Position: "
+                        + parkingLot.getWaitingListSize() + ")");
+            } else {
+                // The bounded waiting list turned the vehicle away as well
+                status = 503;
+                appendResult(json, false, "Lot is full. Waiting list full.");
+            }
+        } finally {
+            engineLock.unlock();
+        }
+        sendJson(exchange, status, json.append('}'));
+    }
+    
+    private void handleCheckOut(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "POST")) {
+            return;
+        }
+        Map<String, String> params = readParams(exchange);
+        StringBuilder json = new StringBuilder(256);
+        int spotNumber;
+        try {
+            spotNumber = Integer.parseInt(params.getOrDefault("spotNumber", "").trim());
+        } catch (NumberFormatException e) {
+            appendResult(json, false, "Invalid spot number.");
+            sendJson(exchange, 400, json.append('}'));
+            return;
+        }
+        
+        engineLock.lock();
+        try {
+            ParkingTicket ticket = parkingLot.checkOutVehicle(spotNumber);
+            if (ticket == null) {
+                appendResult(json, false, "Spot #" + spotNumber + " is vacant or does not exist.");
+            } else {
+                long minutes = ticket.getParkingDurationMinutes();
+                appendResult(json, true, "Vehicle checked out successfully.");
+                json.append(",\"ticket\":");
+                ParkingJson.appendTicket(json, ticket);
+                json.append(",\"durationHours\":").append(minutes / 60);
+                json.append(",\"durationMinutes\":").append(minutes % 60);
+            }
+        } finally {
+            engineLock.unlock();
+        }
+        sendJson(exchange, 200, json.append('}'));
+    }
+    
+    private void handleStatus(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        CachedJson status = statusCache = current(statusCache, json -> {
+            appendStatus(json);
+            json.append('}');
+        });
+        sendCached(exchange, status);
+    }
+    
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        String vehiclePlate = readParams(exchange).getOrDefault("vehiclePlate", "").trim().toUpperCase();
+        StringBuilder json = new StringBuilder(256);
+        engineLock.lock();
+        try {
+            ParkingTicket ticket = parkingLot.searchVehicle(vehiclePlate);
+            if (ticket != null) {
+                ParkingJson.appendTicket(json, ticket);
+            }
+        } finally {
+            engineLock.unlock();
+        }
+        if (json.length() == 0) {
+            json.append("{\"message\":\"Vehicle not found\"}");
+        }
+        sendJson(exchange, 200, json);
+    }
+    
+    private void handleWaitingList(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        StringBuilder json = new StringBuilder(256);
+        engineLock.lock();
+        try {
+            ParkingJson.appendStrings(json, parkingLot.getWaitingEntries());
+        } finally {
+            engineLock.unlock();
+        }
+        sendJson(exchange, 200, json);
+    }
+    
+    private void handleVehicles(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        CachedJson vehicles = vehiclesCache = current(vehiclesCache, this::appendVehicles);
+        sendCached(exchange, vehicles);
+    }
+    
+    /**
+     * Occupancy trend, oldest period first: ?resolution=second|minute|hour (default minute)&count=N
+     * The series has its own lock, so reading it never waits for the engine.
+     */
+    private void handleOccupancy(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        Map<String, String> params = readParams(exchange);
+        OccupancyTimeSeries.Resolution resolution = parseResolution(params.getOrDefault("resolution", "minute"));
+        int count = parseCount(params.get("count"));
+        
+        StringBuilder json = new StringBuilder(256);
+        if (resolution == null || count < 1) {
+            appendResult(json, false, "resolution must be second, minute or hour and count a positive number.");
+            sendJson(exchange, 400, json.append('}'));
+            return;
+        }
+        
+        json.append("{\"resolution\":\"").append(resolution.name().toLowerCase()).append('"');
+        json.append(",\"periodMillis\":").append(resolution.getPeriodMillis());
+        json.append(",\"periods\":[");
+        int start = json.length();
+        occupancy.forEachSlot(resolution, Math.min(count, resolution.getSlots()),
+                (startMillis, arrivals, departures, endOccupancy, peakOccupancy, averageOccupancy) -> {
+                    if (json.length() > start) {
+                        json.append(',');
+                    }
+                    json.append("{\"start\":").append(startMillis);
+                    json.append(",\"arrivals\":").append(arrivals);
+                    json.append(",\"departures\":").append(departures);
+                    json.append(",\"endOccupancy\":").append(endOccupancy);
+                    json.append(",\"peakOccupancy\":").append(peakOccupancy);
+                    json.append(",\"averageOccupancy\":").append(averageOccupancy).append('}');
+                });
+        sendJson(exchange, 200, json.append("]}"));
+    }
+    
+    /**
+     * Return the cached listing if the lot has not changed since it was built, else build it anew
+     * The version check needs no lock; only a rebuild takes the engine lock.
+     */
+    private CachedJson current(CachedJson cached, Consumer<StringBuilder> builder) {
+        if (cached != null && cached.version == parkingLot.getVersion()) {
+            return cached;
+        }
+        StringBuilder json = new StringBuilder(1024);
+        engineLock.lock();
+        try {
+            long version = parkingLot.getVersion();
+            builder.accept(json);
+            return new CachedJson(version, '"' + etagPrefix + '-' + version + '"', json);
+        } finally {
+            engineLock.unlock();
+        }
+    }
+    
+    /**
+     * Apply a gate's buffered events in order under one engine lock and one journal sync
+     * Body: [{"type":"check-in","tenantName":..,"vehiclePlate":..,"timestamp":millis},
+     *        {"type":"check-out","spotNumber":..|"vehiclePlate":..,"timestamp":millis}, ...]
+     * A malformed batch is rejected as a whole before anything is applied.
+     */
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "POST")) {
+            return;
+        }
+        ArrayList<GateEvent> batch;
+        try {
+            batch = parseBatch(readBody(exchange));
+        } catch (IllegalArgumentException e) {
+            StringBuilder json = new StringBuilder(128);
+            appendResult(json, false, e.getMessage());
+            sendJson(exchange, 400, json.append('}'));
+            return;
+        }
+        
+        ArrayList<GateEvent.Result> results;
+        engineLock.lock();
+        try {
+            results = parkingLot.applyBatch(batch);
+        } finally {
+            engineLock.unlock();
+        }
+        
+        StringBuilder json = new StringBuilder(64 + results.size() * 200);
+        appendResult(json, true, "Applied " + results.size() + " events.");
+        json.append(",\"results\":[");
+        for (int i = 0; i < results.size(); i++) {
+            GateEvent.Result result = results.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"index\":").append(i);
+            json.append(",\"success\":").append(result.isSuccess());
+            json.append(",\"outcome\":\"").append(result.getOutcome().name()).append('"');
+            if (result.getTicket() != null) {
+                json.append(",\"ticket\":");
+                ParkingJson.appendTicket(json, result.getTicket());
+            }
+            json.append('}');
+        }
+        sendJson(exchange, 200, json.append("]}"));
+    }
+    
+    private static ArrayList<GateEvent> parseBatch(String body) {
+        ArrayList<Map<String, String>> items = ParkingJson.parseObjects(body);
+        if (items.size() > MAX_BATCH_EVENTS) {
+            throw new IllegalArgumentException("Batch too large: " + items.size() + " events, at most " + MAX_BATCH_EVENTS);
+        }
+        
+        ArrayList<GateEvent> batch = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, String> item = items.get(i);
+            String type = item.getOrDefault("type", "");
+            String tenantName = item.getOrDefault("tenantName", "");
+            String vehiclePlate = item.getOrDefault("vehiclePlate", "");
+            vehiclePlate = vehiclePlate == null ? "" : vehiclePlate.trim().toUpperCase();
+            try {
+                long eventMillis = item.get("timestamp") == null ? 0 : Long.parseLong(item.get("timestamp"));
+                if ("check-in".equals(type) && tenantName != null && !tenantName.isBlank() && !vehiclePlate.isEmpty()) {
+                    batch.add(GateEvent.checkIn(tenantName.trim(), vehiclePlate, eventMillis));
+                } else if ("check-out".equals(type) && item.get("spotNumber") != null) {
+                    batch.add(GateEvent.checkOut(Integer.parseInt(item.get("spotNumber")), eventMillis));
+                } else if ("check-out".equals(type) && !vehiclePlate.isEmpty()) {
+                    batch.add(GateEvent.checkOutPlate(vehiclePlate, eventMillis));
+                } else {
+                    throw new IllegalArgumentException("Event " + i + ": expected a check-in with tenantName and"
+                            + " vehiclePlate, or a check-out with spotNumber or vehiclePlate");
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Event " + i + ": invalid number");
+            }
+        }
+        return batch;
+    }
+    
+    /**
+     * Server-Sent Events: optional snapshot, then deltas until the client goes away
+     * Resumes after the Last-Event-ID header (sent by browsers on reconnect) or
+     * the "since" parameter; without either, or when the gap is too old to
+     * replay, the client gets a fresh snapshot carrying the current sequence.
+     */
+    private void handleEvents(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        long after = parseSequence(exchange.getRequestHeaders().getFirst("Last-Event-ID"));
+        if (after < 0) {
+            after = parseSequence(readParams(exchange).get("since"));
+        }
+        
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "text/event-stream; charset=utf-8");
+        headers.set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        
+        ArrayList<ParkingEventStream.Event> batch = new ArrayList<>();
+        try (Writer out = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)) {
+            out.write("retry: " + RECONNECT_MILLIS + "\n\n");
+            if (after < 0) {
+                after = writeSnapshot(out);
+            }
+            out.flush();
+            
+            while (true) {
+                batch.clear();
+                if (!events.awaitEvents(after, HEARTBEAT_MILLIS, batch)) {
+                    after = writeSnapshot(out);
+                } else if (batch.isEmpty()) {
+                    out.write(": keep-alive\n\n"); // also detects clients that went away
+                }
+                for (ParkingEventStream.Event event : batch) {
+                    writeEvent(out, event.getSequence(), event.getType(), event.getData());
+                    after = event.getSequence();
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Client disconnected
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // server stopping
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    private long writeSnapshot(Writer out) throws IOException {
+        StringBuilder json = new StringBuilder(1024);
+        long sequence;
+        engineLock.lock();
+        try {
+            sequence = events.getSequence();
+            appendStatus(json);
+            json.append(",\"waitingList\":");
+            ParkingJson.appendStrings(json, parkingLot.getWaitingEntries());
+            json.append('}');
+        } finally {
+            engineLock.unlock();
+        }
+        writeEvent(out, sequence, "snapshot", json);
+        return sequence;
+    }
+    
+    private static void writeEvent(Writer out, long sequence, String type, CharSequence data) throws IOException {
+        out.write("id: ");
+        out.write(Long.toString(sequence));
+        out.write("\nevent: ");
+        out.write(type);
+        out.write("\ndata: ");
+        out.append(data);
+        out.write("\n\n");
+    }
+    
+    private void handlePage(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        File page = new File(WEB_PAGE);
+        if (!("/".equals(path) || ("/" + WEB_PAGE).equals(path)) || !page.isFile()) {
+            sendText(exchange, 404, "text/plain; charset=utf-8", "Not found");
+            return;
+        }
+        sendText(exchange, 200, "text/html; charset=utf-8", new String(Files.readAllBytes(page.toPath()), StandardCharsets.UTF_8));
+    }
+    
+    // Caller holds engineLock; leaves the object open for extra fields
+    private void appendStatus(StringBuilder json) {
+        int total = parkingLot.getTotalSpots();
+        int occupied = parkingLot.getOccupiedSpotsCount();
+        json.append("{\"totalSpots\":").append(total);
+        json.append(",\"occupiedSpots\":").append(occupied);
+        json.append(",\"availableSpots\":").append(parkingLot.getAvailableSpotsCount());
+        json.append(",\"occupancyRate\":").append(total == 0 ? 0.0 : occupied * 100.0 / total);
+        json.append(",\"sequence\":").append(events.getSequence());
+        json.append(",\"vehicles\":");
+        appendVehicles(json);
+    }
+    
+    // Caller holds engineLock
+    private void appendVehicles(StringBuilder json) {
+        json.append('[');
+        int start = json.length();
+        parkingLot.forEachParkedVehicle(1, parkingLot.getTotalSpots(), ticket -> {
+            if (json.length() > start) {
+                json.append(',');
+            }
+            ParkingJson.appendTicket(json, ticket);
+        });
+        json.append(']');
+    }
+    
+    private static void appendResult(StringBuilder json, boolean success, String message) {
+        json.append("{\"success\":").append(success).append(",\"message\":");
+        ParkingJson.appendString(json, message);
+    }
+    
+    private static OccupancyTimeSeries.Resolution parseResolution(String value) {
+        for (OccupancyTimeSeries.Resolution resolution : OccupancyTimeSeries.Resolution.values()) {
+            if (resolution.name().equalsIgnoreCase(value.trim())) {
+                return resolution;
+            }
+        }
+        return null;
+    }
+    
+    private static int parseCount(String value) {
+        if (value == null) {
+            return DEFAULT_OCCUPANCY_PERIODS;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    private static long parseSequence(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    private static boolean requireMethod(HttpExchange exchange, String method) throws IOException {
+        if (method.equals(exchange.getRequestMethod())) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Allow", method);
+        sendText(exchange, 405, "text/plain; charset=utf-8", "Method not allowed");
+        return false;
+    }
+    
+    /**
+     * Read query string and form-encoded body parameters (body wins)
+     */
+    private static Map<String, String> readParams(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            parseForm(readBody(exchange), params);
+        }
+        return params;
+    }
+    
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            in.transferTo(body);
+            return body.toString(StandardCharsets.UTF_8);
+        }
+    }
+    
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+    
+    /**
+     * Send a cached listing, or 304 with no body when the client already has this version
+     */
+    private static void sendCached(HttpExchange exchange, CachedJson cached) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", cached.etag);
+        headers.set("Cache-Control", "no-cache"); // keep it, but check back every time
+        if (matchesEtag(exchange.getRequestHeaders().get("If-None-Match"), cached.etag)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        headers.set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, cached.body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(cached.body);
+        }
+    }
+    
+    // If-None-Match holds "*" or a list of tags, possibly weak (W/"..."), possibly over several headers
+    private static boolean matchesEtag(List<String> ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String header : ifNoneMatch) {
+            for (String tag : header.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static void sendJson(HttpExchange exchange, int status, CharSequence json) throws IOException {
+        sendText(exchange, status, "application/json; charset=utf-8", json);
+    }
+    
+    private static void sendText(HttpExchange exchange, int status, String contentType, CharSequence text) throws IOException {
+        byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+    
+    /**
+     * Run the web service for the journaled lot: java ParkingApiServer [port]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        
+        ParkingLot parkingLot = new ParkingLot();
+        if (!FileHandler.openJournal(parkingLot)) {
+            System.err.println("Saved parking data could not be restored; not starting, so the saved files are left untouched.");
+            System.exit(1);
+        }
+        String databaseUrl = System.getProperty(TicketDatabaseWriter.URL_PROPERTY);
+        if (databaseUrl != null) {
+            FileHandler.openDatabase(databaseUrl);
+        }
+        
+        ParkingApiServer apiServer = new ParkingApiServer(parkingLot, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            apiServer.stop();
+            FileHandler.closeJournal();
+        }));
+        apiServer.start();
+        System.out.println("SPOT web service running on http://localhost:" + apiServer.getPort()
+                + " (" + apiServer.getThreadMode().name().toLowerCase() + " threads)");
+    }
+    
+    /**
+     * Response body serialized for one lot version, with its ETag
+     */
+    private static final class CachedJson {
+        final long version;
+        final String etag;
+        final byte[] body;
+        
+        CachedJson(long version, String etag, CharSequence json) {
+            this.version = version;
+            this.etag = etag;
+            this.body = json.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a ParkingLot on its own thread and hands its changes to a UI thread in batches
+ * Commands from the dashboard or a gate feed are queued to one engine thread,
+ * so callers never wait for the lot and the lot needs no lock. Every change
+ * becomes an immutable Change in a pending list; one delivery task on the UI
+ * executor (Platform::runLater for JavaFX) takes the whole list, up to
+ * maxDelivery changes at a time, so a burst of check-ins costs the UI thread
+ * a few tasks instead of one per change. Changes arrive in engine order.
+ */
+public class ParkingEngineService implements Closeable {
+    public static final int DEFAULT_MAX_DELIVERY = 4096;
+    
+    private final ParkingLot parkingLot;
+    private final ExecutorService engine;
+    private final Executor uiExecutor;
+    private final Consumer<List<Change>> subscriber;
+    private final int maxDelivery;
+    
+    private ArrayList<Change> pending = new ArrayList<>(); // guarded by this
+    private boolean deliveryScheduled;                     // guarded by this
+    private long deliveryCount;                            // guarded by this
+    
+    public ParkingEngineService(ParkingLot parkingLot, Executor uiExecutor, Consumer<List<Change>> subscriber) {
+        this(parkingLot, uiExecutor, subscriber, DEFAULT_MAX_DELIVERY);
+    }
+    
+    /**
+     * Create a service owning the lot; from now on only the engine thread may touch it
+     */
+    public ParkingEngineService(ParkingLot parkingLot, Executor uiExecutor, Consumer<List<Change>> subscriber,
+            int maxDelivery) {
+        if (maxDelivery < 1) {
+            throw new IllegalArgumentException("Delivery size must be positive: " + maxDelivery);
+        }
+        this.parkingLot = parkingLot;
+        this.uiExecutor = uiExecutor;
+        this.subscriber = subscriber;
+        this.maxDelivery = maxDelivery;
+        this.engine = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "spot-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        parkingLot.addListener(new Publisher());
+    }
+    
+    /**
+     * Run a command against the lot on the engine thread
+     * The future completes on the engine thread; changes made by the command are
+     * queued for delivery before it completes, so a UI continuation scheduled
+     * with the same executor sees them already applied.
+     */
+    public <T> CompletableFuture<T> call(Function<ParkingLot, T> command) {
+        return CompletableFuture.supplyAsync(() -> command.apply(parkingLot), engine);
+    }
+    
+    /**
+     * Apply one gate event on the engine thread
+     */
+    public CompletableFuture<GateEvent.Result> submit(GateEvent event) {
+        return call(lot -> lot.applyBatch(List.of(event)).get(0));
+    }
+    
+    /**
+     * Apply a batch of gate events on the engine thread, e.g. from a live gate feed
+     */
+    public CompletableFuture<ArrayList<GateEvent.Result>> submitBatch(List<GateEvent> events) {
+        List<GateEvent> copy = List.copyOf(events);
+        return call(lot -> lot.applyBatch(copy));
+    }
+    
+    /**
+     * Get number of delivery tasks run on the UI executor so far
+     */
+    public synchronized long getDeliveryCount() {
+        return deliveryCount;
+    }
+    
+    /**
+     * Stop the engine thread after the commands already queued
+     */
+    @Override
+    public void close() {
+        engine.shutdown();
+        try {
+            engine.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void publish(Change change) {
+        boolean schedule;
+        synchronized (this) {
+            pending.add(change);
+            schedule = !deliveryScheduled;
+            deliveryScheduled = true;
+        }
+        if (schedule) {
+            uiExecutor.execute(this::deliver);
+        }
+    }
+    
+    /**
+     * Hand pending changes to the subscriber on the UI thread, at most maxDelivery per task
+     */
+    private void deliver() {
+        List<Change> changes;
+        boolean more;
+        synchronized (this) {
+            if (pending.size() <= maxDelivery) {
+                changes = pending;
+                pending = new ArrayList<>();
+                deliveryScheduled = false;
+                more = false;
+            } else {
+                List<Change> head = pending.subList(0, maxDelivery);
+                changes = new ArrayList<>(head);
+                head.clear();
+                more = true;
+            }
+            deliveryCount++;
+        }
+        if (more) {
+            uiExecutor.execute(this::deliver); // let the UI render between slices of a large burst
+        }
+        subscriber.accept(changes);
+    }
+    
+    /**
+     * Turns lot callbacks (on the engine thread) into published changes
+     */
+    private final class Publisher implements ParkingLotListener {
+        
+        @Override
+        public void onCheckIn(ParkingTicket ticket) {
+            publish(new Change(Change.Type.CHECK_IN, ticket.getSpotNumber(), ticket.getTenantName(),
+                    ticket.getVehiclePlate(), ticket.getCheckInMillis(), null));
+        }
+        
+        @Override
+        public void onCheckOut(ParkingTicket ticket) {
+            publish(new Change(Change.Type.CHECK_OUT, ticket.getSpotNumber(), ticket.getTenantName(),
+                    ticket.getVehiclePlate(), ticket.getCheckInMillis(), null));
+        }
+        
+        @Override
+        public void onWaitlisted(String entry) {
+            publish(new Change(Change.Type.WAITLISTED, 0, null, null, 0, entry));
+        }
+        
+        @Override
+        public void onWaitingProcessed(String entry) {
+            publish(new Change(Change.Type.WAITING_PROCESSED, 0, null, null, 0, entry));
+        }
+    }
+    
+    /**
+     * One lot change as the UI needs it, detached from the engine's mutable tickets
+     */
+    public static final class Change {
+        
+        public enum Type {
+            CHECK_IN,
+            CHECK_OUT,
+            WAITLISTED,
+            WAITING_PROCESSED
+        }
+        
+        private final Type type;
+        private final int spotNumber;
+        private final String tenantName;
+        private final String vehiclePlate;
+        private final long checkInMillis;
+        private final String waitingEntry;
+        
+        Change(Type type, int spotNumber, String tenantName, String vehiclePlate, long checkInMillis,
+                String waitingEntry) {
+            this.type = type;
+            this.spotNumber = spotNumber;
+            this.tenantName = tenantName;
+            this.vehiclePlate = vehiclePlate;
+            this.checkInMillis = checkInMillis;
+            this.waitingEntry = waitingEntry;
+        }
+        
+        public Type getType() {
+            return type;
+        }
+        
+        /**
+         * Get the spot of a check-in or check-out, 0 for waiting list changes
+         */
+        public int getSpotNumber() {
+            return spotNumber;
+        }
+        
+        public String getTenantName() {
+            return tenantName;
+        }
+        
+        public String getVehiclePlate() {
+            return vehiclePlate;
+        }
+        
+        public long getCheckInMillis() {
+            return checkInMillis;
+        }
+        
+        /**
+         * Get the waiting list entry added or served, null for spot changes
+         */
+        public String getWaitingEntry() {
+            return waitingEntry;
+        }
+    }
+}
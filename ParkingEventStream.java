@@ -0,0 +1,158 @@
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Numbered feed of lot changes for push clients (web dashboard event stream)
+ * Registered as a ParkingLotListener, it turns every check-in, check-out and
+ * waiting list change into a small JSON delta with the next sequence number,
+ * serialized once and kept in a fixed ring of recent events. A client that
+ * reconnects with the last sequence it saw gets only what it missed; only a
+ * client that fell further behind than the ring (or a new one) needs a full
+ * snapshot. Readers block in awaitEvents until something newer arrives.
+ * Waiting uses a ReentrantLock condition rather than Object.wait, which would
+ * pin the carrier thread of every idle stream under virtual threads.
+ */
+public class ParkingEventStream implements ParkingLotListener {
+    public static final int DEFAULT_HISTORY = 4096;
+    
+    public static final String CHECK_IN = "check-in";
+    public static final String CHECK_OUT = "check-out";
+    public static final String WAITING_ADDED = "waiting-added";
+    public static final String WAITING_REMOVED = "waiting-removed";
+    
+    private final Event[] history; // sequence % length -> event
+    private long sequence;         // last sequence handed out, 0 = none yet; guarded by lock
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    
+    public ParkingEventStream() {
+        this(DEFAULT_HISTORY);
+    }
+    
+    /**
+     * Create a stream remembering the given number of recent events for resume
+     */
+    public ParkingEventStream(int historySize) {
+        if (historySize < 1) {
+            throw new IllegalArgumentException("History size must be positive: " + historySize);
+        }
+        this.history = new Event[historySize];
+    }
+    
+    @Override
+    public void onCheckIn(ParkingTicket ticket) {
+        StringBuilder data = new StringBuilder(160).append("{\"ticket\":");
+        ParkingJson.appendTicket(data, ticket);
+        publish(CHECK_IN, data.append('}').toString());
+    }
+    
+    @Override
+    public void onCheckOut(ParkingTicket ticket) {
+        long minutes = ticket.getParkingDurationMinutes();
+        StringBuilder data = new StringBuilder(200).append("{\"ticket\":");
+        ParkingJson.appendTicket(data, ticket);
+        data.append(",\"durationHours\":").append(minutes / 60);
+        data.append(",\"durationMinutes\":").append(minutes % 60);
+        publish(CHECK_OUT, data.append('}').toString());
+    }
+    
+    @Override
+    public void onWaitlisted(String entry) {
+        StringBuilder data = new StringBuilder(64).append("{\"entry\":");
+        ParkingJson.appendString(data, entry);
+        publish(WAITING_ADDED, data.append('}').toString());
+    }
+    
+    @Override
+    public void onWaitingProcessed(String entry) {
+        StringBuilder data = new StringBuilder(64).append("{\"entry\":");
+        ParkingJson.appendString(data, entry);
+        publish(WAITING_REMOVED, data.append('}').toString());
+    }
+    
+    /**
+     * Get the sequence number of the latest event (0 if none)
+     * Read it under the same lock that guards lot changes to pair it with a snapshot.
+     */
+    public long getSequence() {
+        lock.lock();
+        try {
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Wait up to timeoutMillis for events after the given sequence and add them to out, oldest first
+     * Returns false when the client cannot be caught up from history (it fell
+     * behind by more than the ring holds, or holds a sequence this stream never
+     * issued, e.g. from before a restart) and must start again from a snapshot.
+     * Returns true with nothing added when the wait timed out.
+     */
+    public boolean awaitEvents(long afterSequence, long timeoutMillis, List<Event> out)
+            throws InterruptedException {
+        lock.lock();
+        try {
+            if (afterSequence > sequence || afterSequence < sequence - history.length) {
+                return false;
+            }
+            
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (afterSequence == sequence && remaining > 0) {
+                remaining = published.awaitNanos(remaining);
+            }
+            if (afterSequence < sequence - history.length) {
+                return false;
+            }
+            
+            for (long s = afterSequence + 1; s <= sequence; s++) {
+                out.add(history[(int) (s % history.length)]);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void publish(String type, String data) {
+        lock.lock();
+        try {
+            long next = ++sequence;
+            history[(int) (next % history.length)] = new Event(next, type, data);
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * One change: sequence number, type and JSON payload
+     */
+    public static final class Event {
+        private final long sequence;
+        private final String type;
+        private final String data;
+        
+        Event(long sequence, String type, String data) {
+            this.sequence = sequence;
+            this.type = type;
+            this.data = data;
+        }
+        
+        public long getSequence() {
+            return sequence;
+        }
+        
+        public String getType() {
+            return type;
+        }
+        
+        public String getData() {
+            return data;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Facility made of many ParkingLot shards (lots or levels of a site)
+ * Each shard keeps its own spot range and is locked on its own, so levels
+ * scale independently. Facility-wide occupancy is kept in counters and a
+ * plate directory remembers which shard holds each vehicle, so neither
+ * question has to visit the shards one by one.
+ */
+public class ParkingFacility {
+    private static final int PENDING = -1; // plate reserved, shard not yet known
+    
+    private volatile ParkingLot[] shards = new ParkingLot[0];
+    private volatile String[] shardNames = new String[0];
+    private volatile AtomicIntegerArray freeSpots = new AtomicIntegerArray(0); // shard -> free spots
+    
+    private final ConcurrentHashMap<String, Integer> plateDirectory = new ConcurrentHashMap<>(); // plate -> shard
+    private final AtomicInteger occupiedSpots = new AtomicInteger();
+    private volatile int totalSpots;
+    
+    /**
+     * Add a shard, returns its index
+     * Shards are expected to be registered at startup, before traffic starts.
+     */
+    public synchronized int addShard(String name, ParkingLot lot) {
+        int count = shards.length;
+        ParkingLot[] newShards = Arrays.copyOf(shards, count + 1);
+        String[] newNames = Arrays.copyOf(shardNames, count + 1);
+        AtomicIntegerArray newFree = new AtomicIntegerArray(count + 1);
+        
+        newShards[count] = lot;
+        newNames[count] = name;
+        for (int i = 0; i < count; i++) {
+            newFree.set(i, freeSpots.get(i));
+        }
+        
+        synchronized (lot) {
+            newFree.set(count, lot.getAvailableSpotsCount());
+            occupiedSpots.addAndGet(lot.getOccupiedSpotsCount());
+            for (ParkingTicket ticket : lot.getAllParkedVehicles()) {
+                plateDirectory.put(ticket.getVehiclePlate(), count);
+            }
+        }
+        
+        freeSpots = newFree;
+        shardNames = newNames;
+        shards = newShards;
+        totalSpots += lot.getTotalSpots();
+        return count;
+    }
+    
+    /**
+     * Check in a vehicle on the least-loaded shard
+     */
+    public ParkingTicket checkInVehicle(String tenantName, String vehiclePlate) {
+        return checkInVehicle(tenantName, vehiclePlate, -1);
+    }
+    
+    /**
+     * Check in a vehicle, trying the preferred shard first (-1 for none)
+     * Falls back to the least-loaded shard when the preferred one is full.
+     * Returns null if the vehicle is already parked or every shard is full,
+     * in which case it joins the waiting list of the preferred or least-loaded shard.
+     */
+    public ParkingTicket checkInVehicle(String tenantName, String vehiclePlate, int preferredShard) {
+        ParkingLot[] lots = shards;
+        if (lots.length == 0) {
+            return null;
+        }
+        
+        // Reserve the plate facility-wide so it cannot park on two shards
+        if (plateDirectory.putIfAbsent(vehiclePlate, PENDING) != null) {
+            return null;
+        }
+        
+        boolean[] tried = new boolean[lots.length];
+        int shard = preferredShard >= 0 && preferredShard < lots.length ? preferredShard : leastLoadedShard(tried);
+        int firstChoice = shard;
+        
+        while (shard != -1) {
+            tried[shard] = true;
+            ParkingTicket ticket = tryCheckIn(shard, tenantName, vehiclePlate);
+            if (ticket != null) {
+                return ticket;
+            }
+            shard = leastLoadedShard(tried);
+        }
+        
+        // Every shard is full, queue on the first choice; only queue, a spot freed
+        // meanwhile must not park the vehicle behind the facility's counters
+        plateDirectory.remove(vehiclePlate, PENDING);
+        ParkingLot lot = lots[firstChoice == -1 ? 0 : firstChoice];
+        synchronized (lot) {
+            lot.addToWaitingList(tenantName + " (" + vehiclePlate + ")");
+        }
+        return null;
+    }
+    
+    /**
+     * Check out a vehicle from a shard
+     */
+    public ParkingTicket checkOutVehicle(int shard, int spotNumber) {
+        ParkingLot[] lots = shards;
+        if (shard < 0 || shard >= lots.length) {
+            return null;
+        }
+        
+        ParkingLot lot = lots[shard];
+        ParkingTicket ticket;
+        synchronized (lot) {
+            ticket = lot.checkOutVehicle(spotNumber);
+            if (ticket == null) {
+                return null;
+            }
+            freeSpots.incrementAndGet(shard);
+            plateDirectory.remove(ticket.getVehiclePlate(), shard);
+        }
+        
+        occupiedSpots.decrementAndGet();
+        return ticket;
+    }
+    
+    /**
+     * Search for a vehicle anywhere in the facility, visiting only its shard
+     */
+    public ParkingTicket searchVehicle(String vehiclePlate) {
+        int shard = getShardOf(vehiclePlate);
+        if (shard == -1) {
+            return null;
+        }
+        
+        ParkingLot lot = shards[shard];
+        synchronized (lot) {
+            return lot.searchVehicle(vehiclePlate);
+        }
+    }
+    
+    /**
+     * Get the shard holding a vehicle, or -1 if it is not parked
+     */
+    public int getShardOf(String vehiclePlate) {
+        Integer shard = plateDirectory.get(vehiclePlate);
+        return shard == null ? -1 : shard;
+    }
+    
+    /**
+     * Get a shard by index
+     * Callers that mutate it directly must synchronize on it and bypass the facility counters.
+     */
+    public ParkingLot getShard(int shard) {
+        return shards[shard];
+    }
+    
+    /**
+     * Get a shard's name
+     */
+    public String getShardName(int shard) {
+        return shardNames[shard];
+    }
+    
+    /**
+     * Get number of shards
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+    
+    /**
+     * Get free spots of one shard without locking it
+     */
+    public int getAvailableSpotsCount(int shard) {
+        return freeSpots.get(shard);
+    }
+    
+    /**
+     * Get facility-wide occupied spots count
+     */
+    public int getOccupiedSpotsCount() {
+        return occupiedSpots.get();
+    }
+    
+    /**
+     * Get facility-wide available spots count
+     */
+    public int getAvailableSpotsCount() {
+        return totalSpots - occupiedSpots.get();
+    }
+    
+    /**
+     * Get facility-wide total spots
+     */
+    public int getTotalSpots() {
+        return totalSpots;
+    }
+    
+    /**
+     * Check if every shard is full
+     */
+    public boolean isFacilityFull() {
+        return getAvailableSpotsCount() <= 0;
+    }
+    
+    /**
+     * Park on one shard under its lock only, returns null if it is full
+     * The plate's directory entry moves from PENDING to the shard under the
+     * same lock, so a checkout (which needs that lock to see the ticket) always
+     * finds the real entry to remove.
+     */
+    private ParkingTicket tryCheckIn(int shard, String tenantName, String vehiclePlate) {
+        ParkingLot lot = shards[shard];
+        ParkingTicket ticket;
+        synchronized (lot) {
+            if (lot.isLotFull() || !lot.checkInVehicle(tenantName, vehiclePlate)) {
+                return null;
+            }
+            freeSpots.decrementAndGet(shard);
+            if (!plateDirectory.replace(vehiclePlate, PENDING, shard)) {
+                // Reservation dropped behind our back: the vehicle is parked here regardless
+                plateDirectory.put(vehiclePlate, shard);
+            }
+            ticket = lot.searchVehicle(vehiclePlate);
+        }
+        occupiedSpots.incrementAndGet();
+        return ticket;
+    }
+    
+    /**
+     * Pick the untried shard with the most free spots, or -1 if none has room
+     */
+    private int leastLoadedShard(boolean[] tried) {
+        AtomicIntegerArray free = freeSpots;
+        int best = -1;
+        int bestFree = 0;
+        for (int i = 0; i < tried.length; i++) {
+            int shardFree = free.get(i);
+            if (!tried[i] && shardFree > bestFree) {
+                best = i;
+                bestFree = shardFree;
+            }
+        }
+        return best;
+    }
+}
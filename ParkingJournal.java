@@ -0,0 +1,504 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal for a ParkingLot
+ * Every check-in and check-out is one small framed record appended to the
+ * journal file. After a number of records the current lot is compacted into
+ * a snapshot and the journal starts over. On startup the snapshot is loaded
+ * and the journal replayed on top of it.
+ *
+ * Record frame: [int payloadLength][int crc32][payload]
+ * Payload:      [long sequence][byte type][int spot][long epochMillis]
+ *               check-in only: [int len][tenant utf-8][int len][plate utf-8]
+ * Snapshots use the fixed-width TicketSnapshot format.
+ *
+ * With a follower attached (e.g. the write-behind database), compaction
+ * keeps the records the follower has not stored yet: the snapshot covers
+ * everything, and the journal is rewritten with only the records after the
+ * follower's stored sequence, so it shrinks as far as the follower allows.
+ * Writes are serialized with a ReentrantLock rather than synchronized, so a
+ * virtual thread syncing the file does not pin its carrier thread.
+ */
+public class ParkingJournal implements ParkingLotListener, Closeable {
+    public static final int DEFAULT_COMPACT_EVERY = 10_000;
+    
+    private static final byte CHECK_IN = 1;
+    private static final byte CHECK_OUT = 2;
+    private static final int FRAME_HEADER = 8;
+    private static final int MAX_PAYLOAD = 1 << 20;
+    
+    private final ParkingLot parkingLot;
+    private final File snapshotFile;
+    private final File journalFile;
+    private final int compactEvery;
+    private final boolean syncEachWrite;
+    private final CRC32 crc = new CRC32();
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+    private long sequence;
+    private long firstSequence;  // first record in the journal file (sequence + 1 if empty)
+    private int recordsSinceCompaction;
+    private int batchDepth;      // inside ParkingLot.applyBatch: sync once at the end
+    private boolean unsynced;
+    private Follower follower;   // downstream store fed from the journal, if any
+    
+    private ParkingJournal(ParkingLot parkingLot, File snapshotFile, File journalFile,
+                           int compactEvery, boolean syncEachWrite) {
+        this.parkingLot = parkingLot;
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.compactEvery = compactEvery;
+        this.syncEachWrite = syncEachWrite;
+    }
+    
+    /**
+     * Replay saved state into the lot and start journaling its changes
+     * Call on an empty lot, before any other check-ins.
+     */
+    public static ParkingJournal open(ParkingLot parkingLot, File snapshotFile, File journalFile,
+                                      int compactEvery, boolean syncEachWrite) throws IOException {
+        ParkingJournal journal = new ParkingJournal(parkingLot, snapshotFile, journalFile, compactEvery, syncEachWrite);
+        Replay replay = replay(snapshotFile, journalFile,
+                parkingLot::restoreTicket, parkingLot::checkOutVehicle);
+        
+        // Drop a torn tail left by a crash mid-write, then append after the last good record
+        journal.channel = FileChannel.open(journalFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        journal.channel.truncate(replay.validLength);
+        journal.channel.position(replay.validLength);
+        journal.sequence = replay.lastSequence;
+        journal.firstSequence = replay.journalRecords > 0 ? replay.firstSequence : replay.lastSequence + 1;
+        journal.recordsSinceCompaction = replay.journalRecords;
+        
+        parkingLot.addListener(journal);
+        return journal;
+    }
+    
+    /**
+     * Read the tickets that were active when the files were last written, in spot order
+     */
+    public static ArrayList<ParkingTicket> readTickets(File snapshotFile, File journalFile) throws IOException {
+        TreeMap<Integer, ParkingTicket> tickets = new TreeMap<>(); // spot -> active ticket
+        replay(snapshotFile, journalFile,
+                ticket -> tickets.put(ticket.getSpotNumber(), ticket), tickets::remove);
+        return new ArrayList<>(tickets.values());
+    }
+    
+    /**
+     * Write a full snapshot of a lot and discard the journal it supersedes
+     */
+    public static void writeSnapshot(File snapshotFile, File journalFile, ParkingLot parkingLot) throws IOException {
+        TicketSnapshot.write(snapshotFile, parkingLot.getAllParkedVehicles(), parkingLot.getTotalSpots(), 0);
+        Files.deleteIfExists(journalFile.toPath());
+    }
+    
+    /**
+     * Visit what was saved after a given sequence, e.g. to bring a downstream store up to date
+     * If the journal still holds every record after afterSequence (compaction
+     * keeps them for a follower), they are visited in order. Otherwise, when
+     * the snapshot is newer than afterSequence, the records in between are gone
+     * and the visitor first gets the snapshot's tickets, then every journal
+     * record newer than both.
+     */
+    public static void readSince(File snapshotFile, File journalFile, long afterSequence,
+                                 RecordVisitor visitor) throws IOException {
+        try (DataInputStream in = journalFile.exists() ? openJournalFile(journalFile) : null) {
+            Record record = in != null ? readRecord(in) : null;
+            
+            long from = afterSequence;
+            boolean journalCovers = record != null && record.sequence <= afterSequence + 1;
+            if (!journalCovers && snapshotFile.exists()) {
+                ArrayList<ParkingTicket> tickets = new ArrayList<>();
+                long snapshotSequence = TicketSnapshot.load(snapshotFile, tickets::add).getLastSequence();
+                if (snapshotSequence > afterSequence) {
+                    visitor.onSnapshot(snapshotSequence, tickets);
+                    from = snapshotSequence;
+                }
+            }
+            
+            for (; record != null; record = readRecord(in)) {
+                if (record.sequence <= from) {
+                    continue;
+                }
+                if (record.type == CHECK_IN) {
+                    visitor.onCheckIn(record.sequence, record.toTicket());
+                } else {
+                    visitor.onCheckOut(record.sequence, record.spot, record.epochMillis);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Get sequence number of the last record written
+     */
+    public long getSequence() {
+        lock.lock();
+        try {
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Feed every record written from now on to a follower, which also vetoes compaction
+     */
+    public void setFollower(Follower follower) {
+        lock.lock();
+        try {
+            this.follower = follower;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void onCheckIn(ParkingTicket ticket) {
+        append(CHECK_IN, ticket);
+    }
+    
+    @Override
+    public void onCheckOut(ParkingTicket ticket) {
+        append(CHECK_OUT, ticket);
+    }
+    
+    @Override
+    public void onBatchStart() {
+        lock.lock();
+        try {
+            batchDepth++;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Group commit: one sync covers every record of the batch
+     */
+    @Override
+    public void onBatchEnd() {
+        lock.lock();
+        try {
+            if (--batchDepth > 0 || !unsynced || channel == null) {
+                return;
+            }
+            try {
+                channel.force(false);
+                unsynced = false;
+            } catch (IOException e) {
+                System.err.println("Error syncing parking journal: " + e.getMessage());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Fold the journal into a fresh snapshot of the lot, keeping records the follower has not stored
+     * If the follower has not stored any record the journal could drop, nothing
+     * is written and the next attempt comes compactEvery records later.
+     */
+    public void compact() throws IOException {
+        lock.lock();
+        try {
+            long keepAfter = follower != null ? Math.min(follower.getStoredSequence(), sequence) : sequence;
+            recordsSinceCompaction = 0;
+            if (keepAfter < firstSequence && keepAfter < sequence) {
+                return; // every record is still needed downstream
+            }
+            
+            TicketSnapshot.write(snapshotFile, parkingLot.getAllParkedVehicles(), parkingLot.getTotalSpots(), sequence);
+            if (keepAfter == sequence) {
+                channel.truncate(0);
+                channel.position(0);
+                channel.force(true);
+            } else {
+                keepRecordsAfter(keepAfter);
+            }
+            firstSequence = keepAfter + 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Rewrite the journal with only the records after a sequence; caller holds the lock
+     * The shortened copy is synced and renamed over the journal, so a crash
+     * leaves either the old journal or the new one.
+     */
+    private void keepRecordsAfter(long keepAfter) throws IOException {
+        File temp = new File(journalFile.getPath() + ".tmp");
+        try (DataInputStream in = openJournalFile(journalFile);
+             FileOutputStream file = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            Record record;
+            while ((record = readRecord(in)) != null) {
+                if (record.sequence > keepAfter) {
+                    out.writeInt(record.payload.length);
+                    out.writeInt(record.crc);
+                    out.write(record.payload);
+                }
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        
+        channel.close();
+        try {
+            Files.move(temp.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+    }
+    
+    /**
+     * Compact, stop listening and close the journal file
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel == null) {
+                return;
+            }
+            parkingLot.removeListener(this);
+            try {
+                compact();
+            } finally {
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Append one record, compacting when the journal has grown enough
+     */
+    private void append(byte type, ParkingTicket ticket) {
+        lock.lock();
+        try {
+            if (channel == null) {
+                return;
+            }
+        
+            try {
+                sequence++;
+                buffer.clear();
+                buffer = encode(buffer, crc, sequence, type, ticket);
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (syncEachWrite && batchDepth > 0) {
+                    unsynced = true;
+                } else if (syncEachWrite) {
+                    channel.force(false);
+                }
+            
+                if (follower != null) {
+                    follower.onRecord(sequence, ticket);
+                }
+                if (++recordsSinceCompaction >= compactEvery) {
+                    compact();
+                }
+            } catch (IOException e) {
+                System.err.println("Error writing parking journal: " + e.getMessage());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Encode a framed record into the buffer, growing it if needed
+     */
+    private static ByteBuffer encode(ByteBuffer target, CRC32 crc, long seq, byte type, ParkingTicket ticket) {
+        byte[] tenant = type == CHECK_IN ? ticket.getTenantName().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        byte[] plate = type == CHECK_IN ? ticket.getVehiclePlate().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int payloadLength = 8 + 1 + 4 + 8 + (type == CHECK_IN ? 8 + tenant.length + plate.length : 0);
+        
+        if (target.capacity() < FRAME_HEADER + payloadLength) {
+            target = ByteBuffer.allocate(Math.max(target.capacity() * 2, FRAME_HEADER + payloadLength));
+        }
+        
+        long epochMillis = type == CHECK_IN ? ticket.getCheckInMillis() : ticket.getCheckOutMillis();
+        int payloadStart = target.position() + FRAME_HEADER;
+        target.putInt(payloadLength);
+        target.putInt(0); // crc, filled in below
+        target.putLong(seq);
+        target.put(type);
+        target.putInt(ticket.getSpotNumber());
+        target.putLong(epochMillis);
+        if (type == CHECK_IN) {
+            target.putInt(tenant.length).put(tenant);
+            target.putInt(plate.length).put(plate);
+        }
+        
+        crc.reset();
+        crc.update(target.array(), payloadStart, payloadLength);
+        target.putInt(payloadStart - 4, (int) crc.getValue());
+        return target;
+    }
+    
+    /**
+     * Load the snapshot, then apply journal records newer than it
+     */
+    private static Replay replay(File snapshotFile, File journalFile,
+                                 Consumer<ParkingTicket> checkIn, IntConsumer checkOut) throws IOException {
+        Replay replay = new Replay();
+        
+        if (snapshotFile.exists()) {
+            replay.lastSequence = TicketSnapshot.load(snapshotFile, checkIn).getLastSequence();
+        }
+        
+        if (journalFile.exists()) {
+            try (DataInputStream in = openJournalFile(journalFile)) {
+                long snapshotSequence = replay.lastSequence;
+                Record record;
+                while ((record = readRecord(in)) != null) {
+                    replay.validLength += FRAME_HEADER + record.payload.length;
+                    if (replay.journalRecords++ == 0) {
+                        replay.firstSequence = record.sequence;
+                    }
+                    if (record.sequence <= snapshotSequence) {
+                        continue; // already folded into the snapshot
+                    }
+                    if (record.type == CHECK_IN) {
+                        checkIn.accept(record.toTicket());
+                    } else {
+                        checkOut.accept(record.spot);
+                    }
+                    replay.lastSequence = record.sequence;
+                }
+            }
+        }
+        return replay;
+    }
+    
+    // Files.newInputStream lets the journal be renamed over while it is read, also on Windows
+    private static DataInputStream openJournalFile(File journalFile) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile.toPath()), 1 << 16));
+    }
+    
+    /**
+     * Read one framed record, or null at end of data or at a torn/corrupt frame
+     */
+    private static Record readRecord(DataInputStream in) throws IOException {
+        try {
+            int payloadLength = in.readInt();
+            int expectedCrc = in.readInt();
+            if (payloadLength <= 0 || payloadLength > MAX_PAYLOAD) {
+                return null;
+            }
+            
+            byte[] payload = new byte[payloadLength];
+            in.readFully(payload);
+            CRC32 check = new CRC32();
+            check.update(payload);
+            if ((int) check.getValue() != expectedCrc) {
+                return null;
+            }
+            
+            ByteBuffer data = ByteBuffer.wrap(payload);
+            Record record = new Record();
+            record.crc = expectedCrc;
+            record.payload = payload;
+            record.sequence = data.getLong();
+            record.type = data.get();
+            record.spot = data.getInt();
+            record.epochMillis = data.getLong();
+            if (record.type == CHECK_IN) {
+                record.tenantName = readString(data);
+                record.vehiclePlate = readString(data);
+            }
+            return record;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+    
+    private static String readString(ByteBuffer data) {
+        byte[] bytes = new byte[data.getInt()];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Store kept up to date from the journal, e.g. a write-behind database
+     */
+    public interface Follower {
+        
+        /**
+         * Called after each record is written, with its sequence number and the ticket as changed
+         */
+        void onRecord(long sequence, ParkingTicket ticket);
+        
+        /**
+         * Get the last sequence stored downstream; compaction keeps the records after it
+         * Answer without waiting: this runs on the request path.
+         */
+        long getStoredSequence();
+    }
+    
+    /**
+     * Receives saved history from readSince
+     */
+    public interface RecordVisitor {
+        
+        /**
+         * The lot as of a snapshot newer than the requested sequence
+         */
+        void onSnapshot(long sequence, ArrayList<ParkingTicket> activeTickets);
+        
+        void onCheckIn(long sequence, ParkingTicket ticket);
+        
+        void onCheckOut(long sequence, int spotNumber, long checkOutMillis);
+    }
+    
+    /**
+     * Decoded journal or snapshot record
+     */
+    private static class Record {
+        int crc;
+        byte[] payload; // kept so compaction can copy the frame unchanged
+        long sequence;
+        byte type;
+        int spot;
+        long epochMillis;
+        String tenantName;
+        String vehiclePlate;
+        
+        ParkingTicket toTicket() {
+            return new ParkingTicket(tenantName, vehiclePlate, spot, epochMillis);
+        }
+    }
+    
+    /**
+     * Result of replaying the snapshot and journal
+     */
+    private static class Replay {
+        long lastSequence;
+        long firstSequence; // of the first journal record
+        long validLength;
+        int journalRecords;
+    }
+}
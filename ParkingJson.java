@@ -0,0 +1,260 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON for the web API and event stream
+ * Only what the engine sends is covered (strings, tickets, string lists),
+ * appended straight into a caller's StringBuilder. Output is always a single
+ * line, so a document can be used as one Server-Sent Events data field.
+ * Reading is limited to what the API accepts: an array of flat objects.
+ */
+public final class ParkingJson {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
+    private ParkingJson() {
+    }
+    
+    /**
+     * Append a quoted, escaped JSON string (null -> null)
+     */
+    public static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        out.append("\\u").append(HEX[c >> 12 & 0xF]).append(HEX[c >> 8 & 0xF])
+                                .append(HEX[c >> 4 & 0xF]).append(HEX[c & 0xF]);
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+    
+    /**
+     * Append a ticket object; check-out fields are null while the vehicle is parked
+     */
+    public static void appendTicket(StringBuilder out, ParkingTicket ticket) {
+        out.append("{\"spotNumber\":").append(ticket.getSpotNumber());
+        out.append(",\"tenantName\":");
+        appendString(out, ticket.getTenantName());
+        out.append(",\"vehiclePlate\":");
+        appendString(out, ticket.getVehiclePlate());
+        out.append(",\"checkInTime\":");
+        appendString(out, ticket.getCheckInTimeString());
+        out.append(",\"checkInMillis\":").append(ticket.getCheckInMillis());
+        out.append(",\"checkOutTime\":");
+        appendString(out, ticket.getCheckOutMillis() == 0 ? null : ticket.getCheckOutTimeString());
+        out.append(",\"checkOutMillis\":");
+        if (ticket.getCheckOutMillis() == 0) {
+            out.append("null");
+        } else {
+            out.append(ticket.getCheckOutMillis());
+        }
+        out.append(",\"active\":").append(ticket.isActive()).append('}');
+    }
+    
+    /**
+     * Append an array of tickets
+     */
+    public static void appendTickets(StringBuilder out, Iterable<ParkingTicket> tickets) {
+        out.append('[');
+        boolean first = true;
+        for (ParkingTicket ticket : tickets) {
+            if (!first) {
+                out.append(',');
+            }
+            appendTicket(out, ticket);
+            first = false;
+        }
+        out.append(']');
+    }
+    
+    /**
+     * Append an array of strings
+     */
+    public static void appendStrings(StringBuilder out, Iterable<String> values) {
+        out.append('[');
+        boolean first = true;
+        for (String value : values) {
+            if (!first) {
+                out.append(',');
+            }
+            appendString(out, value);
+            first = false;
+        }
+        out.append(']');
+    }
+    
+    /**
+     * Parse an array of flat objects, e.g. [{"type":"check-in","spotNumber":3}]
+     * Values are returned as text (strings unescaped, numbers and booleans as
+     * written, null as null); nested objects or arrays are rejected.
+     */
+    public static ArrayList<Map<String, String>> parseObjects(String json) {
+        Reader reader = new Reader(json);
+        ArrayList<Map<String, String>> objects = new ArrayList<>();
+        reader.expect('[');
+        if (!reader.tryConsume(']')) {
+            do {
+                objects.add(reader.readObject());
+            } while (reader.tryConsume(','));
+            reader.expect(']');
+        }
+        reader.expectEnd();
+        return objects;
+    }
+    
+    /**
+     * Cursor over a JSON document
+     */
+    private static final class Reader {
+        private final String text;
+        private int pos;
+        
+        Reader(String text) {
+            this.text = text;
+        }
+        
+        Map<String, String> readObject() {
+            Map<String, String> object = new HashMap<>();
+            expect('{');
+            if (tryConsume('}')) {
+                return object;
+            }
+            do {
+                skipWhitespace();
+                String key = readString();
+                expect(':');
+                object.put(key, readValue());
+            } while (tryConsume(','));
+            expect('}');
+            return object;
+        }
+        
+        String readValue() {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == '"') {
+                return readString();
+            }
+            int start = pos;
+            while (pos < text.length() && "+-.0123456789eEtruefalsn".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.isEmpty()) {
+                throw error("Expected a string, number, boolean or null");
+            }
+            return "null".equals(literal) ? null : literal;
+        }
+        
+        String readString() {
+            if (pos >= text.length() || text.charAt(pos) != '"') {
+                throw error("Expected a string");
+            }
+            pos++;
+            StringBuilder value = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Truncated unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid unicode escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        value.append(escaped); // \" \\ \/
+                }
+            }
+            throw error("Unterminated string");
+        }
+        
+        void expect(char c) {
+            if (!tryConsume(c)) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+        
+        boolean tryConsume(char c) {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+        
+        void expectEnd() {
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw error("Unexpected trailing content");
+            }
+        }
+        
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+        
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos);
+        }
+    }
+}
@@ -1,70 +1,152 @@
 import java.util.*;
+import java.util.function.Consumer;
 
 public class ParkingLot {
-    private static final int TOTAL_SPOTS = 10;
+    private static final int DEFAULT_TOTAL_SPOTS = 10;
+    private static final int DEFAULT_WAITING_CAPACITY = 1024;
     
-    // HashMap for quick lookup of parking assignments
-    private HashMap<Integer, ParkingTicket> parkedVehicles; // spotNumber -> ParkingTicket
-    private HashMap<String, Integer> vehicleToSpot; // vehiclePlate -> spotNumber
+    // System property overriding the default capacity, e.g. -Dspot.capacity=20000
+    public static final String CAPACITY_PROPERTY = "spot.capacity";
     
-    // Queue for waiting list when lot is full
-    private Queue<String> waitingList;
+    // Flat, unboxed lookup of parking assignments
+    private ParkingTicket[] parkedVehicles; // spotNumber - 1 -> ParkingTicket
+    private PlateIndex vehicleToSpot; // plate id -> spotNumber
     
-    // ArrayList for sorted display
-    private ArrayList<Integer> spotNumbers;
+    // Bounded lock-free queue for waiting list when lot is full
+    private WaitingQueue<String> waitingList;
     
+    // Free-spot allocator (bitmap by default)
+    private SpotAllocator allocator;
+    
+    // Observers notified after each check-in and check-out
+    private ArrayList<ParkingLotListener> listeners;
+    
+    // Bumped by every change to spots or the waiting list; written under the caller's lock,
+    // volatile so readers can tell "nothing changed" without taking it
+    private volatile long version;
+    
+    /**
+     * Create a lot sized from the spot.capacity property (default 10)
+     */
     public ParkingLot() {
-        this.parkedVehicles = new HashMap<>();
-        this.vehicleToSpot = new HashMap<>();
-        this.waitingList = new LinkedList<>();
-        this.spotNumbers = new ArrayList<>();
-        
-        // Initialize spot numbers
-        for (int i = 1; i <= TOTAL_SPOTS; i++) {
-            spotNumbers.add(i);
-        }
+        this(Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_TOTAL_SPOTS));
+    }
+    
+    /**
+     * Create a lot with the given number of spots
+     */
+    public ParkingLot(int totalSpots) {
+        this(new BitmapSpotAllocator(totalSpots));
+    }
+    
+    /**
+     * Create a lot backed by a custom spot allocator
+     */
+    public ParkingLot(SpotAllocator allocator) {
+        this.parkedVehicles = new ParkingTicket[allocator.getCapacity()];
+        this.vehicleToSpot = new PlateIndex();
+        this.waitingList = new WaitingQueue<>(DEFAULT_WAITING_CAPACITY);
+        this.allocator = allocator;
+        this.listeners = new ArrayList<>();
+    }
+    
+    /**
+     * Register a listener for check-in, check-out and waiting list events
+     */
+    public void addListener(ParkingLotListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Unregister a listener
+     */
+    public void removeListener(ParkingLotListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Get the lot's version: it increases with every change, so an equal version means an unchanged lot
+     * Lets callers cache anything derived from the lot and rebuild it only when this moves.
+     */
+    public long getVersion() {
+        return version;
     }
     
     /**
      * Find the first available parking spot
      */
     public int findAvailableSpot() {
-        for (Integer spotNum : spotNumbers) {
-            if (!parkedVehicles.containsKey(spotNum)) {
-                return spotNum;
-            }
-        }
-        return -1; // No available spot
+        return allocator.peekFree(); // -1 if no available spot
     }
     
     /**
      * Check if a vehicle is already parked
      */
     public boolean isVehicleParked(String vehiclePlate) {
-        return vehicleToSpot.containsKey(vehiclePlate);
+        int plateId = SymbolTable.PLATES.find(vehiclePlate);
+        return plateId != -1 && vehicleToSpot.containsKey(plateId);
     }
     
     /**
      * Check in a vehicle (Insert operation)
      */
     public boolean checkInVehicle(String tenantName, String vehiclePlate) {
-        // Check if vehicle already parked
-        if (isVehicleParked(vehiclePlate)) {
+        return checkInVehicle(tenantName, vehiclePlate, System.currentTimeMillis());
+    }
+    
+    /**
+     * Check in a vehicle with the time it actually arrived
+     */
+    public boolean checkInVehicle(String tenantName, String vehiclePlate, long checkInMillis) {
+        return checkInVehicle(tenantName, vehiclePlate, 0, checkInMillis);
+    }
+    
+    /**
+     * Check in a vehicle on a chosen spot (0 = any), e.g. one booked at the dashboard
+     * A vehicle whose chosen spot is taken joins the waiting list, like one arriving at a full lot.
+     */
+    public boolean checkInVehicle(String tenantName, String vehiclePlate, int spotNumber, long checkInMillis) {
+        // Check if vehicle already parked; a plate never seen cannot be
+        int knownPlateId = SymbolTable.PLATES.find(vehiclePlate);
+        if (knownPlateId >= 0 && vehicleToSpot.containsKey(knownPlateId)) {
             return false;
         }
         
-        int availableSpot = findAvailableSpot();
+        int availableSpot = spotNumber > 0
+                ? (allocator.claim(spotNumber) ? spotNumber : -1)
+                : allocator.allocate();
         
         if (availableSpot == -1) {
-            // Add to waiting queue
-            waitingList.offer(tenantName + " (" + vehiclePlate + ")");
+            addToWaitingList(tenantName + " (" + vehiclePlate + ")");
             return false;
         }
         
-        ParkingTicket ticket = new ParkingTicket(tenantName, vehiclePlate, availableSpot);
-        parkedVehicles.put(availableSpot, ticket);
-        vehicleToSpot.put(vehiclePlate, availableSpot);
+        // Intern only once the vehicle has a spot, so rejected plates never fill the table
+        int plateId = knownPlateId >= 0 ? knownPlateId : SymbolTable.PLATES.intern(vehiclePlate);
+        ParkingTicket ticket = new ParkingTicket(SymbolTable.TENANTS.intern(tenantName), plateId,
+                availableSpot, checkInMillis);
+        parkedVehicles[availableSpot - 1] = ticket;
+        vehicleToSpot.put(plateId, availableSpot);
+        version++;
+        
+        for (ParkingLotListener listener : listeners) {
+            listener.onCheckIn(ticket);
+        }
+        return true;
+    }
+    
+    /**
+     * Put a previously issued ticket back on its spot (used when replaying saved data)
+     * Listeners are not notified, the ticket is already on record.
+     */
+    public boolean restoreTicket(ParkingTicket ticket) {
+        if (vehicleToSpot.containsKey(ticket.getPlateId()) || !allocator.claim(ticket.getSpotNumber())) {
+            return false;
+        }
         
+        parkedVehicles[ticket.getSpotNumber() - 1] = ticket;
+        vehicleToSpot.put(ticket.getPlateId(), ticket.getSpotNumber());
+        version++;
         return true;
     }
     
@@ -72,69 +154,179 @@ public class ParkingLot {
      * Check out a vehicle (Delete operation)
      */
     public ParkingTicket checkOutVehicle(int spotNumber) {
-        if (!parkedVehicles.containsKey(spotNumber)) {
+        return checkOutVehicle(spotNumber, System.currentTimeMillis());
+    }
+    
+    /**
+     * Check out a vehicle with the time it actually left
+     */
+    public ParkingTicket checkOutVehicle(int spotNumber, long checkOutMillis) {
+        ParkingTicket ticket = getTicketBySpot(spotNumber);
+        if (ticket == null) {
             return null; // Spot not occupied
         }
         
-        ParkingTicket ticket = parkedVehicles.get(spotNumber);
-        ticket.setCheckOutTime();
+        ticket.setCheckOutTime(checkOutMillis);
         ticket.setActive(false);
         
-        // Remove from maps
-        parkedVehicles.remove(spotNumber);
-        vehicleToSpot.remove(ticket.getVehiclePlate());
+        // Remove from indexes
+        parkedVehicles[spotNumber - 1] = null;
+        vehicleToSpot.remove(ticket.getPlateId());
+        allocator.release(spotNumber);
+        version++;
         
+        for (ParkingLotListener listener : listeners) {
+            listener.onCheckOut(ticket);
+        }
         return ticket;
     }
     
+    /**
+     * Apply gate events in order as one batch, e.g. a backlog replayed by a gate that was offline
+     * Listeners are told where the batch starts and ends, so the journal syncs
+     * once per batch instead of once per event. Each event gets its own result
+     * and a failed event does not stop the rest. The lot is not thread-safe:
+     * callers sharing it hold their lock around the whole batch.
+     */
+    public ArrayList<GateEvent.Result> applyBatch(List<GateEvent> events) {
+        ArrayList<GateEvent.Result> results = new ArrayList<>(events.size());
+        for (ParkingLotListener listener : listeners) {
+            listener.onBatchStart();
+        }
+        try {
+            for (GateEvent event : events) {
+                results.add(apply(event));
+            }
+        } finally {
+            for (ParkingLotListener listener : listeners) {
+                listener.onBatchEnd();
+            }
+        }
+        return results;
+    }
+    
+    private GateEvent.Result apply(GateEvent event) {
+        long eventMillis = event.getEventMillis() != 0 ? event.getEventMillis() : System.currentTimeMillis();
+        if (event.getType() == GateEvent.Type.CHECK_IN) {
+            if (isVehicleParked(event.getVehiclePlate())) {
+                return new GateEvent.Result(GateEvent.Outcome.ALREADY_PARKED, null);
+            }
+            if (!checkInVehicle(event.getTenantName(), event.getVehiclePlate(), event.getSpotNumber(), eventMillis)) {
+                return new GateEvent.Result(GateEvent.Outcome.WAITLISTED, null);
+            }
+            // Copy, so the result still shows the open ticket if a later event in the batch closes it
+            ParkingTicket parked = searchVehicle(event.getVehiclePlate());
+            return new GateEvent.Result(GateEvent.Outcome.PARKED, new ParkingTicket(parked.getTenantId(),
+                    parked.getPlateId(), parked.getSpotNumber(), parked.getCheckInMillis()));
+        }
+        
+        int spotNumber = event.getSpotNumber();
+        if (spotNumber <= 0) {
+            ParkingTicket parked = searchVehicle(event.getVehiclePlate());
+            spotNumber = parked == null ? -1 : parked.getSpotNumber();
+        }
+        // A gate clock behind the server's must not produce a negative stay
+        ParkingTicket ticket = checkOutVehicle(spotNumber, Math.max(eventMillis, checkInMillisAt(spotNumber)));
+        return ticket == null
+                ? new GateEvent.Result(GateEvent.Outcome.NOT_PARKED, null)
+                : new GateEvent.Result(GateEvent.Outcome.CHECKED_OUT, ticket);
+    }
+    
+    private long checkInMillisAt(int spotNumber) {
+        ParkingTicket ticket = getTicketBySpot(spotNumber);
+        return ticket == null ? 0 : ticket.getCheckInMillis();
+    }
+    
     /**
      * Search for a vehicle (Search operation)
      */
     public ParkingTicket searchVehicle(String vehiclePlate) {
-        if (!vehicleToSpot.containsKey(vehiclePlate)) {
+        int plateId = SymbolTable.PLATES.find(vehiclePlate);
+        int spotNumber = plateId == -1 ? -1 : vehicleToSpot.get(plateId);
+        if (spotNumber == -1) {
             return null;
         }
         
-        int spotNumber = vehicleToSpot.get(vehiclePlate);
-        return parkedVehicles.get(spotNumber);
+        return parkedVehicles[spotNumber - 1];
     }
     
     /**
      * Get parking ticket for a specific spot
      */
     public ParkingTicket getTicketBySpot(int spotNumber) {
-        return parkedVehicles.get(spotNumber);
+        if (spotNumber < 1 || spotNumber > parkedVehicles.length) {
+            return null;
+        }
+        return parkedVehicles[spotNumber - 1];
     }
     
     /**
      * Get all parked vehicles (Traverse operation)
      */
     public ArrayList<ParkingTicket> getAllParkedVehicles() {
-        ArrayList<ParkingTicket> tickets = new ArrayList<>(parkedVehicles.values());
-        // Sort by spot number
-        tickets.sort((t1, t2) -> Integer.compare(t1.getSpotNumber(), t2.getSpotNumber()));
+        ArrayList<ParkingTicket> tickets = new ArrayList<>(getOccupiedSpotsCount());
+        forEachParkedVehicle(1, getTotalSpots(), tickets::add);
         return tickets;
     }
     
+    /**
+     * Get parked vehicles on spots fromSpot..toSpot (inclusive), in spot order
+     */
+    public ArrayList<ParkingTicket> getParkedVehicles(int fromSpot, int toSpot) {
+        ArrayList<ParkingTicket> tickets = new ArrayList<>();
+        forEachParkedVehicle(fromSpot, toSpot, tickets::add);
+        return tickets;
+    }
+    
+    /**
+     * Get up to limit parked vehicles starting at fromSpot, in spot order
+     * The next page starts one past the last returned spot.
+     */
+    public ArrayList<ParkingTicket> getParkedVehiclesPage(int fromSpot, int limit) {
+        ArrayList<ParkingTicket> tickets = new ArrayList<>(Math.max(0, Math.min(limit, getOccupiedSpotsCount())));
+        for (int spot = allocator.nextOccupied(fromSpot); spot != -1 && tickets.size() < limit;
+                spot = allocator.nextOccupied(spot + 1)) {
+            ParkingTicket ticket = parkedVehicles[spot - 1];
+            if (ticket != null) {
+                tickets.add(ticket);
+            }
+        }
+        return tickets;
+    }
+    
+    /**
+     * Visit parked vehicles on spots fromSpot..toSpot (inclusive) in spot order, without copying
+     * Only occupied spots are touched, via the allocator's occupancy bitmap.
+     */
+    public void forEachParkedVehicle(int fromSpot, int toSpot, Consumer<ParkingTicket> action) {
+        for (int spot = allocator.nextOccupied(fromSpot); spot != -1 && spot <= toSpot;
+                spot = allocator.nextOccupied(spot + 1)) {
+            ParkingTicket ticket = parkedVehicles[spot - 1];
+            if (ticket != null) {
+                action.accept(ticket);
+            }
+        }
+    }
+    
     /**
      * Get available spots count
      */
     public int getAvailableSpotsCount() {
-        return TOTAL_SPOTS - parkedVehicles.size();
+        return allocator.getFreeCount();
     }
     
     /**
      * Get occupied spots count
      */
     public int getOccupiedSpotsCount() {
-        return parkedVehicles.size();
+        return vehicleToSpot.size();
     }
     
     /**
      * Get total spots
      */
     public int getTotalSpots() {
-        return TOTAL_SPOTS;
+        return allocator.getCapacity();
     }
     
     /**
@@ -151,24 +343,55 @@ public class ParkingLot {
         return waitingList.peek();
     }
     
+    /**
+     * Add an entry to the waiting queue, returns false if the waiting list is full
+     */
+    public boolean addToWaitingList(String entry) {
+        if (!waitingList.offer(entry)) {
+            return false;
+        }
+        version++;
+        for (ParkingLotListener listener : listeners) {
+            listener.onWaitlisted(entry);
+        }
+        return true;
+    }
+    
     /**
      * Remove from waiting queue
      */
     public void processWaiting() {
-        waitingList.poll();
+        String entry = waitingList.poll();
+        if (entry != null) {
+            version++;
+            for (ParkingLotListener listener : listeners) {
+                listener.onWaitingProcessed(entry);
+            }
+        }
     }
     
     /**
      * Check if lot is full
      */
     public boolean isLotFull() {
-        return parkedVehicles.size() >= TOTAL_SPOTS;
+        return allocator.getFreeCount() == 0;
     }
     
     /**
      * Get all waiting list entries
      */
     public ArrayList<String> getWaitingList() {
-        return new ArrayList<>(waitingList);
+        ArrayList<String> entries = new ArrayList<>(waitingList.size());
+        for (String entry : waitingList) {
+            entries.add(entry);
+        }
+        return entries;
+    }
+    
+    /**
+     * Iterate waiting list entries in queue order without copying them
+     */
+    public Iterable<String> getWaitingEntries() {
+        return waitingList;
     }
 }
@@ -0,0 +1,42 @@
+/**
+ * Callback for parking lot mutations
+ * Listeners run synchronously on the thread that changed the lot, after the change is applied.
+ */
+public interface ParkingLotListener {
+    
+    /**
+     * Called after a vehicle is parked
+     */
+    default void onCheckIn(ParkingTicket ticket) {
+    }
+    
+    /**
+     * Called after a vehicle leaves, with the closed ticket
+     */
+    default void onCheckOut(ParkingTicket ticket) {
+    }
+    
+    /**
+     * Called after a vehicle joins the waiting list because the lot is full
+     */
+    default void onWaitlisted(String entry) {
+    }
+    
+    /**
+     * Called after the head of the waiting list is processed and removed
+     */
+    default void onWaitingProcessed(String entry) {
+    }
+    
+    /**
+     * Called before the events of a batch are applied
+     */
+    default void onBatchStart() {
+    }
+    
+    /**
+     * Called after the last event of a batch, e.g. to flush once for the whole batch
+     */
+    default void onBatchEnd() {
+    }
+}
@@ -1,6 +1,5 @@
 import javafx.beans.property.*;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * ParkingSlot Model Class
@@ -14,7 +13,11 @@ public class ParkingSlot {
     private StringProperty status; // "Available" or "Occupied"
     private StringProperty tenantName;
     private StringProperty vehiclePlate;
-    private ObjectProperty<LocalDateTime> checkInTime;
+    private LongProperty checkInMillis; // epoch millis, 0 when available
+    
+    // Formatted check-in time, reused until the check-in time changes
+    private String formattedCheckIn;
+    private long formattedCheckInMillis;
     
     // Constructors
     /**
@@ -25,7 +28,7 @@ public class ParkingSlot {
         this.status = new SimpleStringProperty("Available");
         this.tenantName = new SimpleStringProperty("");
         this.vehiclePlate = new SimpleStringProperty("");
-        this.checkInTime = new SimpleObjectProperty<>(null);
+        this.checkInMillis = new SimpleLongProperty(0);
     }
     
     /**
@@ -36,7 +39,18 @@ public class ParkingSlot {
         this.status = new SimpleStringProperty("Occupied");
         this.tenantName = new SimpleStringProperty(tenantName);
         this.vehiclePlate = new SimpleStringProperty(vehiclePlate);
-        this.checkInTime = new SimpleObjectProperty<>(checkInTime);
+        this.checkInMillis = new SimpleLongProperty(TimeFormat.toEpochMillis(checkInTime));
+    }
+    
+    /**
+     * Generated ID for the index-th slot of a large lot: rows of 100 named A..Z, AA, AB, ...
+     */
+    public static String generatedId(int index) {
+        StringBuilder id = new StringBuilder(8);
+        for (int row = index / 100 + 1; row > 0; row = (row - 1) / 26) {
+            id.insert(0, (char) ('A' + (row - 1) % 26));
+        }
+        return id.append(index % 100 + 1).toString();
     }
     
     // Getters and Setters with Properties
@@ -89,15 +103,19 @@ public class ParkingSlot {
     }
     
     public LocalDateTime getCheckInTime() {
-        return checkInTime.get();
+        return TimeFormat.toLocalDateTime(checkInMillis.get());
     }
     
     public void setCheckInTime(LocalDateTime time) {
-        checkInTime.set(time);
+        checkInMillis.set(TimeFormat.toEpochMillis(time));
     }
     
-    public ObjectProperty<LocalDateTime> checkInTimeProperty() {
-        return checkInTime;
+    public long getCheckInMillis() {
+        return checkInMillis.get();
+    }
+    
+    public LongProperty checkInMillisProperty() {
+        return checkInMillis;
     }
     
     // Utility Methods
@@ -119,22 +137,26 @@ public class ParkingSlot {
      * Get formatted check-in time
      */
     public String getFormattedCheckInTime() {
-        if (checkInTime.get() == null) {
+        long millis = checkInMillis.get();
+        if (millis == 0) {
             return "N/A";
         }
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        return checkInTime.get().format(formatter);
+        if (formattedCheckIn == null || formattedCheckInMillis != millis) {
+            formattedCheckIn = TimeFormat.format(millis);
+            formattedCheckInMillis = millis;
+        }
+        return formattedCheckIn;
     }
     
     /**
      * Calculate parking duration in minutes
      */
     public long getParkingDurationMinutes() {
-        if (checkInTime.get() == null) {
+        long millis = checkInMillis.get();
+        if (millis == 0) {
             return 0;
         }
-        LocalDateTime now = LocalDateTime.now();
-        return java.time.temporal.ChronoUnit.MINUTES.between(checkInTime.get(), now);
+        return (System.currentTimeMillis() - millis) / 60_000;
     }
     
     /**
@@ -157,9 +179,16 @@ public class ParkingSlot {
      * Occupy the slot with tenant information
      */
     public void occupy(String tenantName, String vehiclePlate) {
+        occupy(tenantName, vehiclePlate, System.currentTimeMillis());
+    }
+    
+    /**
+     * Occupy the slot with the check-in time recorded by the engine
+     */
+    public void occupy(String tenantName, String vehiclePlate, long checkInMillis) {
         this.tenantName.set(tenantName);
         this.vehiclePlate.set(vehiclePlate);
-        this.checkInTime.set(LocalDateTime.now());
+        this.checkInMillis.set(checkInMillis);
         this.status.set("Occupied");
     }
     
@@ -169,7 +198,7 @@ public class ParkingSlot {
     public void release() {
         this.tenantName.set("");
         this.vehiclePlate.set("");
-        this.checkInTime.set(null);
+        this.checkInMillis.set(0);
         this.status.set("Available");
     }
     
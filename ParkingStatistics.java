@@ -0,0 +1,127 @@
+/**
+ * Streaming parking statistics, maintained on every check-in and check-out
+ * Dwell times go into a log-linear histogram, and counters track arrivals,
+ * completed sessions and peak occupancy. Nothing is kept per session, so a
+ * report costs the same after ten sessions or ten million.
+ * Register it as a ParkingLotListener; methods are synchronized so one
+ * instance can be read while the lot keeps running.
+ */
+public class ParkingStatistics implements ParkingLotListener {
+    private static final double MILLIS_PER_MINUTE = 60_000.0;
+    private static final double MILLIS_PER_DAY = 24 * 60 * 60 * 1000.0;
+    
+    private final LogLinearHistogram dwellMillis = new LogLinearHistogram();
+    private final int totalSpots;
+    private final long startedMillis;
+    
+    private long arrivals;
+    private int occupied;
+    private int peakOccupied;
+    private long peakOccupiedMillis;
+    
+    /**
+     * Start collecting for a lot with the given capacity and current occupancy
+     */
+    public ParkingStatistics(int totalSpots, int occupiedSpots) {
+        this.totalSpots = totalSpots;
+        this.startedMillis = System.currentTimeMillis();
+        this.occupied = occupiedSpots;
+        this.peakOccupied = occupiedSpots;
+        this.peakOccupiedMillis = startedMillis;
+    }
+    
+    /**
+     * Start collecting for a lot in its current state
+     */
+    public ParkingStatistics(ParkingLot lot) {
+        this(lot.getTotalSpots(), lot.getOccupiedSpotsCount());
+    }
+    
+    @Override
+    public synchronized void onCheckIn(ParkingTicket ticket) {
+        arrivals++;
+        occupied++;
+        if (occupied > peakOccupied) {
+            peakOccupied = occupied;
+            peakOccupiedMillis = ticket.getCheckInMillis();
+        }
+    }
+    
+    @Override
+    public synchronized void onCheckOut(ParkingTicket ticket) {
+        occupied = Math.max(0, occupied - 1);
+        dwellMillis.record(ticket.getCheckOutMillis() - ticket.getCheckInMillis());
+    }
+    
+    /**
+     * Get number of check-ins seen
+     */
+    public synchronized long getArrivals() {
+        return arrivals;
+    }
+    
+    /**
+     * Get number of completed sessions seen
+     */
+    public synchronized long getCompletedSessions() {
+        return dwellMillis.getCount();
+    }
+    
+    public synchronized double getAverageDwellMinutes() {
+        return dwellMillis.getMean() / MILLIS_PER_MINUTE;
+    }
+    
+    public synchronized double getMedianDwellMinutes() {
+        return getDwellPercentileMinutes(50);
+    }
+    
+    /**
+     * Get dwell time at a percentile (e.g. 95, 99) in minutes, within about 1.6%
+     */
+    public synchronized double getDwellPercentileMinutes(double percentile) {
+        return dwellMillis.getQuantile(percentile / 100.0) / MILLIS_PER_MINUTE;
+    }
+    
+    public synchronized double getLongestDwellMinutes() {
+        return dwellMillis.getMax() / MILLIS_PER_MINUTE;
+    }
+    
+    /**
+     * Get completed sessions per spot since collection started
+     */
+    public synchronized double getTurnoverPerSpot() {
+        return totalSpots == 0 ? 0 : (double) dwellMillis.getCount() / totalSpots;
+    }
+    
+    /**
+     * Get completed sessions per spot per day, scaled from the time observed so far
+     */
+    public synchronized double getTurnoverPerSpotPerDay() {
+        double days = Math.max(1, System.currentTimeMillis() - startedMillis) / MILLIS_PER_DAY;
+        return getTurnoverPerSpot() / days;
+    }
+    
+    public synchronized int getPeakOccupancy() {
+        return peakOccupied;
+    }
+    
+    /**
+     * Get when peak occupancy was first reached (epoch millis)
+     */
+    public synchronized long getPeakOccupancyMillis() {
+        return peakOccupiedMillis;
+    }
+    
+    public synchronized long getStartedMillis() {
+        return startedMillis;
+    }
+    
+    /**
+     * Get a copy of the dwell-time histogram (milliseconds), e.g. to merge across shards
+     */
+    public synchronized LogLinearHistogram getDwellHistogram() {
+        LogLinearHistogram copy = new LogLinearHistogram();
+        copy.merge(dwellMillis);
+        return copy;
+    }
+}
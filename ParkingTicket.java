@@ -1,45 +1,97 @@
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 
 public class ParkingTicket {
-    private String tenantName;
-    private String vehiclePlate;
+    private int tenantId; // SymbolTable.TENANTS id
+    private int plateId;  // SymbolTable.PLATES id
     private int spotNumber;
-    private LocalDateTime checkInTime;
-    private LocalDateTime checkOutTime;
+    private long checkInMillis;  // epoch millis
+    private long checkOutMillis; // epoch millis, 0 until checked out
     private boolean active;
     
+    // Rendered on first use, then reused by every listing, report and log line
+    private String checkInString;
+    private String checkOutString;
+    
     public ParkingTicket(String tenantName, String vehiclePlate, int spotNumber) {
-        this.tenantName = tenantName;
-        this.vehiclePlate = vehiclePlate;
+        this(tenantName, vehiclePlate, spotNumber, System.currentTimeMillis());
+    }
+    
+    /**
+     * Restore a ticket with its original check-in time (used when replaying saved data)
+     */
+    public ParkingTicket(String tenantName, String vehiclePlate, int spotNumber, long checkInMillis) {
+        this(SymbolTable.TENANTS.intern(tenantName), SymbolTable.PLATES.intern(vehiclePlate), spotNumber, checkInMillis);
+    }
+    
+    /**
+     * Create a ticket from already interned tenant and plate ids
+     */
+    public ParkingTicket(int tenantId, int plateId, int spotNumber, long checkInMillis) {
+        this.tenantId = tenantId;
+        this.plateId = plateId;
         this.spotNumber = spotNumber;
-        this.checkInTime = LocalDateTime.now();
+        this.checkInMillis = checkInMillis;
         this.active = true;
     }
     
+    /**
+     * Rebuild a completed session (used by the session archive)
+     */
+    public ParkingTicket(int tenantId, int plateId, int spotNumber, long checkInMillis, long checkOutMillis) {
+        this(tenantId, plateId, spotNumber, checkInMillis);
+        this.checkOutMillis = checkOutMillis;
+        this.active = false;
+    }
+    
     public String getTenantName() {
-        return tenantName;
+        return SymbolTable.TENANTS.name(tenantId);
     }
     
     public String getVehiclePlate() {
-        return vehiclePlate;
+        return SymbolTable.PLATES.name(plateId);
+    }
+    
+    public int getTenantId() {
+        return tenantId;
+    }
+    
+    public int getPlateId() {
+        return plateId;
     }
     
     public int getSpotNumber() {
         return spotNumber;
     }
     
+    public long getCheckInMillis() {
+        return checkInMillis;
+    }
+    
+    /**
+     * Get check-out time in epoch millis, 0 if not checked out
+     */
+    public long getCheckOutMillis() {
+        return checkOutMillis;
+    }
+    
     public LocalDateTime getCheckInTime() {
-        return checkInTime;
+        return TimeFormat.toLocalDateTime(checkInMillis);
     }
     
     public LocalDateTime getCheckOutTime() {
-        return checkOutTime;
+        return TimeFormat.toLocalDateTime(checkOutMillis);
     }
     
     public void setCheckOutTime() {
-        this.checkOutTime = LocalDateTime.now();
+        setCheckOutTime(System.currentTimeMillis());
+    }
+    
+    /**
+     * Set the check-out time explicitly (e.g. an exit recorded by an offline gate)
+     */
+    public void setCheckOutTime(long checkOutMillis) {
+        this.checkOutMillis = checkOutMillis;
+        this.checkOutString = null;
     }
     
     public boolean isActive() {
@@ -51,23 +103,29 @@ public class ParkingTicket {
     }
     
     public String getCheckInTimeString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        return checkInTime.format(formatter);
+        String formatted = checkInString;
+        if (formatted == null) {
+            formatted = TimeFormat.format(checkInMillis);
+            checkInString = formatted;
+        }
+        return formatted;
     }
     
     public String getCheckOutTimeString() {
-        if (checkOutTime == null) {
+        if (checkOutMillis == 0) {
             return "Not checked out";
         }
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        return checkOutTime.format(formatter);
+        String formatted = checkOutString;
+        if (formatted == null) {
+            formatted = TimeFormat.format(checkOutMillis);
+            checkOutString = formatted;
+        }
+        return formatted;
     }
     
     public long getParkingDurationMinutes() {
-        if (checkOutTime == null) {
-            return ChronoUnit.MINUTES.between(checkInTime, LocalDateTime.now());
-        }
-        return ChronoUnit.MINUTES.between(checkInTime, checkOutTime);
+        long end = checkOutMillis == 0 ? System.currentTimeMillis() : checkOutMillis;
+        return (end - checkInMillis) / 60_000;
     }
     
     public long getParkingDurationHours() {
@@ -76,7 +134,7 @@ public class ParkingTicket {
     
     @Override
     public String toString() {
-        return String.format("Spot #%d | Tenant: %s | Plate: %s | Check-in: %s",
-                spotNumber, tenantName, vehiclePlate, getCheckInTimeString());
+        return "Spot #" + spotNumber + " | Tenant: " + getTenantName() + " | Plate: " + getVehiclePlate()
+                + " | Check-in: " + getCheckInTimeString();
     }
 }
@@ -0,0 +1,157 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash index from plate id to spot number
+ * Keys are SymbolTable.PLATES ids, so probes are integer compares with no
+ * String hashing or equals. Keys and values live in two flat int arrays
+ * (linear probing, backward-shift deletion), so lookups never allocate.
+ */
+public class PlateIndex {
+    private static final int NOT_FOUND = -1;
+    private static final int MIN_CAPACITY = 16;
+    private static final int EMPTY = -1; // plate ids are never negative
+    
+    private int[] plates;
+    private int[] spots;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    
+    public PlateIndex() {
+        this(MIN_CAPACITY);
+    }
+    
+    /**
+     * Create an index presized for the expected number of plates
+     */
+    public PlateIndex(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+    
+    /**
+     * Get spot number for a plate id, or -1 if not indexed
+     */
+    public int get(int plate) {
+        int slot = hash(plate) & mask;
+        int key;
+        while ((key = plates[slot]) != EMPTY) {
+            if (key == plate) {
+                return spots[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+    
+    /**
+     * Check if a plate id is indexed
+     */
+    public boolean containsKey(int plate) {
+        return get(plate) != NOT_FOUND;
+    }
+    
+    /**
+     * Map a plate id to a spot, returns the previous spot or -1
+     */
+    public int put(int plate, int spotNumber) {
+        int slot = hash(plate) & mask;
+        int key;
+        while ((key = plates[slot]) != EMPTY) {
+            if (key == plate) {
+                int previous = spots[slot];
+                spots[slot] = spotNumber;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        
+        plates[slot] = plate;
+        spots[slot] = spotNumber;
+        if (++size > resizeAt) {
+            rehash(plates.length << 1);
+        }
+        return NOT_FOUND;
+    }
+    
+    /**
+     * Remove a plate id, returns its spot or -1 if not indexed
+     */
+    public int remove(int plate) {
+        int slot = hash(plate) & mask;
+        int key;
+        while ((key = plates[slot]) != EMPTY) {
+            if (key == plate) {
+                int previous = spots[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+    
+    /**
+     * Get number of indexed plates
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Close the gap left at a removed slot by pulling later probes back
+     */
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int key = plates[slot];
+            if (key == EMPTY) {
+                break;
+            }
+            int home = hash(key) & mask;
+            // Move the entry only if its home is not between the gap and its slot
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                plates[gap] = key;
+                spots[gap] = spots[slot];
+                gap = slot;
+            }
+        }
+        plates[gap] = EMPTY;
+    }
+    
+    private void rehash(int newCapacity) {
+        int[] oldPlates = plates;
+        int[] oldSpots = spots;
+        allocate(newCapacity);
+        
+        for (int i = 0; i < oldPlates.length; i++) {
+            int key = oldPlates[i];
+            if (key != EMPTY) {
+                int slot = hash(key) & mask;
+                while (plates[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                plates[slot] = key;
+                spots[slot] = oldSpots[i];
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        this.plates = new int[capacity];
+        Arrays.fill(plates, EMPTY);
+        this.spots = new int[capacity];
+        this.mask = capacity - 1;
+        this.resizeAt = capacity * 3 / 4;
+    }
+    
+    private static int hash(int plate) {
+        int h = plate * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
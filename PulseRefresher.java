@@ -0,0 +1,95 @@
+import javafx.animation.AnimationTimer;
+
+import java.util.ArrayList;
+
+/**
+ * Coalesces view refreshes to at most one per animation pulse
+ * Each refresh (statistics, a combo box, the waiting list) is registered as a
+ * task. A change only marks the tasks it affects as dirty; on the next pulse
+ * every dirty task runs once, in registration order. A burst of changes
+ * between two frames therefore costs one traversal per view instead of one
+ * per change. The timer only runs while something is pending. FX thread only.
+ */
+public final class PulseRefresher {
+    private final ArrayList<Task> tasks = new ArrayList<>();
+    private boolean scheduled;
+    private long pulseCount;
+    private long requestCount;
+    
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            scheduled = false;
+            flush();
+        }
+    };
+    
+    /**
+     * Register a refresh; request() on the returned task schedules it
+     */
+    public Task task(Runnable refresh) {
+        Task task = new Task(refresh);
+        tasks.add(task);
+        return task;
+    }
+    
+    /**
+     * Run every pending refresh now, e.g. before reading a view that must be current
+     */
+    public void flush() {
+        boolean ran = false;
+        for (Task task : tasks) {
+            if (task.dirty) {
+                task.dirty = false; // a refresh that requests again runs on the next pulse
+                task.refresh.run();
+                ran = true;
+            }
+        }
+        if (ran) {
+            pulseCount++;
+        }
+    }
+    
+    /**
+     * Get number of pulses that ran refreshes
+     */
+    public long getPulseCount() {
+        return pulseCount;
+    }
+    
+    /**
+     * Get number of refresh requests, including those folded into an already pending one
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+    
+    private void schedule() {
+        requestCount++;
+        if (!scheduled) {
+            scheduled = true;
+            timer.start();
+        }
+    }
+    
+    /**
+     * One registered refresh with its dirty flag
+     */
+    public final class Task {
+        private final Runnable refresh;
+        private boolean dirty;
+        
+        private Task(Runnable refresh) {
+            this.refresh = refresh;
+        }
+        
+        /**
+         * Run this refresh on the next pulse (once, however often it is requested)
+         */
+        public void request() {
+            dirty = true;
+            schedule();
+        }
+    }
+}
@@ -4,8 +4,6 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 public class SPOTApplication extends Application {
@@ -219,8 +217,8 @@ public class SPOTApplication extends Application {
             }
             
             ParkingTicket ticket = parkedVehicles.get(spotNumber);
-            LocalDateTime checkOutTime = LocalDateTime.now();
-            long durationMinutes = java.time.temporal.ChronoUnit.MINUTES.between(ticket.checkInTime, checkOutTime);
+            long checkOutMillis = System.currentTimeMillis();
+            long durationMinutes = (checkOutMillis - ticket.checkInMillis) / 60_000;
             long hours = durationMinutes / 60;
             long minutes = durationMinutes % 60;
             
@@ -240,7 +238,7 @@ public class SPOTApplication extends Application {
                 "--------------------------------",
                 spotNumber, ticket.tenantName, ticket.vehiclePlate,
                 ticket.getCheckInTimeString(),
-                checkOutTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
+                TimeFormat.format(checkOutMillis),
                 hours, minutes
             );
             
@@ -432,17 +430,21 @@ public class SPOTApplication extends Application {
         String tenantName;
         String vehiclePlate;
         int spotNumber;
-        LocalDateTime checkInTime;
+        long checkInMillis;
+        String checkInString; // formatted on first use
         
         ParkingTicket(String tenantName, String vehiclePlate, int spotNumber) {
             this.tenantName = tenantName;
             this.vehiclePlate = vehiclePlate;
             this.spotNumber = spotNumber;
-            this.checkInTime = LocalDateTime.now();
+            this.checkInMillis = System.currentTimeMillis();
         }
         
         String getCheckInTimeString() {
-            return checkInTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            if (checkInString == null) {
+                checkInString = TimeFormat.format(checkInMillis);
+            }
+            return checkInString;
         }
     }
 }
@@ -4,7 +4,7 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.geometry.Pos;
+import javafx.util.StringConverter;
 
 import java.net.URL;
 import java.time.LocalDateTime;
@@ -16,6 +16,7 @@ import java.util.*;
  * - HashMap for O(1) slot lookup
  * - Queue for waiting list (FIFO)
  * - ArrayList for dynamic storage
+ * - SlotStatusIndex for live available/occupied lists
  * - CRUD operations: Create, Read, Update, Delete
  */
 public class SPOTDashboardController implements Initializable {
@@ -30,9 +31,18 @@ public class SPOTDashboardController implements Initializable {
     // ArrayList: Dynamic storage for maintaining insertion order
     private ArrayList<ParkingSlot> slotsList = new ArrayList<>();
     
+    // SlotStatusIndex: available and occupied slots, each status change moves one slot in O(1)
+    private final SlotStatusIndex slotIndex = new SlotStatusIndex();
+    
+    // Coalesced view refreshes: changes mark them dirty, the next animation pulse runs each once
+    private final PulseRefresher refresher = new PulseRefresher();
+    private final PulseRefresher.Task statisticsRefresh = refresher.task(this::updateStatistics);
+    private final PulseRefresher.Task waitingQueueRefresh = refresher.task(this::updateWaitingQueueView);
+    
     // Constants
-    private static final int TOTAL_SLOTS = 10;
     private static final String[] SLOT_IDS = {"A1", "A2", "A3", "A4", "A5", "B1", "B2", "B3", "B4", "B5"};
+    // Larger lots (-Dspot.capacity=20000) get generated slot IDs
+    private static final int TOTAL_SLOTS = Math.max(SLOT_IDS.length, Integer.getInteger(ParkingLot.CAPACITY_PROPERTY, 0));
     
     // ==================== FXML Injections ====================
     
@@ -56,17 +66,19 @@ public class SPOTDashboardController implements Initializable {
     @FXML private VBox searchSlotView;
     
     // Dashboard Tab
-    @FXML private GridPane slotsGrid;
+    @FXML private StackPane slotsGridPane;
+    @FXML private ToggleButton densityToggle;
+    private final SlotGridView slotsGrid = new SlotGridView();
     @FXML private ListView<String> waitingQueueView;
     
     // Book Slot Tab
     @FXML private TextField tenantNameField;
     @FXML private TextField vehiclePlateField;
-    @FXML private ComboBox<String> availableSlotsCombo;
+    @FXML private ComboBox<ParkingSlot> availableSlotsCombo;
     @FXML private Label bookStatusLabel;
     
     // Release Slot Tab
-    @FXML private ComboBox<String> occupiedSlotsCombo;
+    @FXML private ComboBox<ParkingSlot> occupiedSlotsCombo;
     @FXML private Label durationLabel;
     @FXML private TextArea tenantInfoArea;
     @FXML private Label releaseStatusLabel;
@@ -88,9 +100,8 @@ public class SPOTDashboardController implements Initializable {
         
         // Setup UI components
         setupSlotsGrid();
+        setupSlotCombos();
         updateStatistics();
-        updateAvailableSlotsCombo();
-        updateOccupiedSlotsCombo();
         updateWaitingQueueView();
         
         // Set active view to dashboard
@@ -109,7 +120,8 @@ public class SPOTDashboardController implements Initializable {
      */
     private void initializeParkingSlots() {
         // Create all slots (initially available)
-        for (String slotId : SLOT_IDS) {
+        for (int i = 0; i < TOTAL_SLOTS; i++) {
+            String slotId = TOTAL_SLOTS == SLOT_IDS.length ? SLOT_IDS[i] : ParkingSlot.generatedId(i);
             ParkingSlot slot = new ParkingSlot(slotId);
             slotsMap.put(slotId, slot);
             slotsList.add(slot);
@@ -130,85 +142,15 @@ public class SPOTDashboardController implements Initializable {
     // ==================== Dashboard View Methods ====================
     
     /**
-     * Setup the slots grid display with cards
-     * Demonstrates: Traversal of HashMap
+     * Set up the virtualized slots grid once
+     * Only visible slots get cards, bound to the slot, so booking or releasing
+     * a slot updates that one card; the toggle switches to the density map.
      */
     private void setupSlotsGrid() {
-        slotsGrid.setHgap(15);
-        slotsGrid.setVgap(15);
-        slotsGrid.setStyle("-fx-padding: 10;");
-        
-        int col = 0, row = 0;
-        // Traverse all slots in HashMap
-        for (ParkingSlot slot : slotsMap.values()) {
-            VBox slotCard = createSlotCard(slot);
-            slotsGrid.add(slotCard, col, row);
-            
-            col++;
-            if (col >= 5) {
-                col = 0;
-                row++;
-            }
-        }
-    }
-    
-    /**
-     * Create a visual card for a parking slot
-     */
-    private VBox createSlotCard(ParkingSlot slot) {
-        VBox card = new VBox(8);
-        card.setStyle(
-            "-fx-border-color: #e8eef7; " +
-            "-fx-border-width: 1; " +
-            "-fx-border-radius: 10; " +
-            "-fx-padding: 15; " +
-            "-fx-background-color: #ffffff; " +
-            "-fx-background-radius: 10; " +
-            "-fx-effect: dropshadow(gaussian, rgba(0, 0, 0, 0.08), 6, 0, 0, 2); " +
-            "-fx-min-height: 130; " +
-            "-fx-pref-width: 130;"
-        );
-        card.setAlignment(Pos.TOP_CENTER);
-        
-        // Slot ID
-        Label slotIdLabel = new Label(slot.getSlotId());
-        slotIdLabel.setStyle("-fx-font-size: 20; -fx-font-weight: bold; -fx-text-fill: #2d3748;");
-        
-        // Status badge
-        Label statusLabel = new Label(slot.getStatus());
-        if (slot.isAvailable()) {
-            statusLabel.setStyle(
-                "-fx-font-size: 10; " +
-                "-fx-font-weight: bold; " +
-                "-fx-text-fill: #38a169; " +
-                "-fx-padding: 4 8 4 8; " +
-                "-fx-background-color: #c6f6d5; " +
-                "-fx-background-radius: 4;"
-            );
-        } else {
-            statusLabel.setStyle(
-                "-fx-font-size: 10; " +
-                "-fx-font-weight: bold; " +
-                "-fx-text-fill: #e53e3e; " +
-                "-fx-padding: 4 8 4 8; " +
-                "-fx-background-color: #fed7d7; " +
-                "-fx-background-radius: 4;"
-            );
-        }
-        
-        // Tenant/vehicle info
-        Label infoLabel = new Label();
-        if (slot.isOccupied()) {
-            infoLabel.setText(slot.getVehiclePlate());
-            infoLabel.setStyle("-fx-font-size: 9; -fx-text-fill: #718096; -fx-wrap-text: true;");
-        } else {
-            infoLabel.setText("Available");
-            infoLabel.setStyle("-fx-font-size: 9; -fx-text-fill: #38a169; -fx-font-weight: bold;");
-        }
-        
-        card.getChildren().addAll(slotIdLabel, statusLabel, infoLabel);
-        
-        return card;
+        slotsGrid.setCellSize(130, 130, 15);
+        slotsGrid.setSlots(slotsList);
+        slotsGridPane.getChildren().setAll(slotsGrid);
+        densityToggle.selectedProperty().bindBidirectional(slotsGrid.densityViewProperty());
     }
     
     /**
@@ -232,20 +174,12 @@ public class SPOTDashboardController implements Initializable {
     
     /**
      * Update statistics labels
-     * Demonstrates: Traversal and counting
+     * Demonstrates: Counting from the index instead of traversing every slot
      */
     private void updateStatistics() {
         int total = slotsMap.size();
-        int occupied = 0;
-        
-        // Traverse HashMap to count occupied slots
-        for (ParkingSlot slot : slotsMap.values()) {
-            if (slot.isOccupied()) {
-                occupied++;
-            }
-        }
-        
-        int available = total - occupied;
+        int occupied = slotIndex.getOccupiedCount();
+        int available = slotIndex.getAvailableCount();
         
         totalSlotsLabel.setText(String.valueOf(total));
         occupiedSlotsLabel.setText(String.valueOf(occupied));
@@ -253,29 +187,52 @@ public class SPOTDashboardController implements Initializable {
         activeSessionsLabel.setText(String.valueOf(occupied));
     }
     
+    /**
+     * Schedule the views that depend on slot status; each refreshes once on the next pulse
+     */
+    private void slotsChanged() {
+        statisticsRefresh.request();
+    }
+    
     // ==================== Book Slot Methods ====================
     
     /**
-     * Update available slots combo box
-     * Demonstrates: Filtering HashMap values
+     * Show the index's live lists in the slot combo boxes
+     * Set once: a booking or release moves one slot between the lists, no rebuild.
      */
-    private void updateAvailableSlotsCombo() {
-        ObservableList<String> items = FXCollections.observableArrayList();
-        
-        for (ParkingSlot slot : slotsMap.values()) {
-            if (slot.isAvailable()) {
-                items.add(slot.getSlotId());
+    private void setupSlotCombos() {
+        slotIndex.setSlots(slotsList);
+        availableSlotsCombo.setConverter(slotConverter(false));
+        availableSlotsCombo.setItems(slotIndex.getAvailable());
+        occupiedSlotsCombo.setConverter(slotConverter(true));
+        occupiedSlotsCombo.setItems(slotIndex.getOccupied());
+    }
+    
+    /**
+     * Combo box text for a slot: its ID, optionally with the parked vehicle
+     */
+    private static StringConverter<ParkingSlot> slotConverter(boolean withPlate) {
+        return new StringConverter<>() {
+            @Override
+            public String toString(ParkingSlot slot) {
+                if (slot == null) {
+                    return "";
+                }
+                return withPlate ? slot.getSlotId() + " (" + slot.getVehiclePlate() + ")" : slot.getSlotId();
             }
-        }
-        
-        availableSlotsCombo.setItems(items);
+            
+            @Override
+            public ParkingSlot fromString(String text) {
+                return null; // combos are not editable
+            }
+        };
     }
     
     @FXML
     private void bookSlot() {
         String tenantName = tenantNameField.getText().trim();
         String vehiclePlate = vehiclePlateField.getText().trim();
-        String selectedSlot = availableSlotsCombo.getValue();
+        ParkingSlot slot = availableSlotsCombo.getValue();
         
         // Validation
         if (tenantName.isEmpty()) {
@@ -286,18 +243,16 @@ public class SPOTDashboardController implements Initializable {
             showMessage(bookStatusLabel, "⚠ Enter vehicle plate", "error");
             return;
         }
-        if (selectedSlot == null) {
+        if (slot == null) {
             showMessage(bookStatusLabel, "⚠ Select a parking slot", "error");
             return;
         }
         
-        // Get slot from HashMap (O(1) lookup)
-        ParkingSlot slot = slotsMap.get(selectedSlot);
-        if (slot == null || !slot.isAvailable()) {
+        if (!slot.isAvailable()) {
             // Add to waiting queue if slot not available
             waitingQueue.offer(tenantName + " (" + vehiclePlate + ")");
             showMessage(bookStatusLabel, "✓ Added to waiting queue", "info");
-            updateWaitingQueueView();
+            waitingQueueRefresh.request();
             return;
         }
         
@@ -305,11 +260,8 @@ public class SPOTDashboardController implements Initializable {
         slot.occupy(tenantName, vehiclePlate);
         showMessage(bookStatusLabel, "✓ Slot booked successfully!", "success");
         
-        // Update UI
-        updateStatistics();
-        updateAvailableSlotsCombo();
-        updateOccupiedSlotsCombo();
-        setupSlotsGrid(); // Refresh grid
+        // Update UI on the next pulse, together with any other change before it
+        slotsChanged();
         clearBookForm();
     }
     
@@ -323,59 +275,35 @@ public class SPOTDashboardController implements Initializable {
     
     // ==================== Release Slot Methods ====================
     
-    /**
-     * Update occupied slots combo box
-     * Demonstrates: Filtering HashMap values
-     */
-    private void updateOccupiedSlotsCombo() {
-        ObservableList<String> items = FXCollections.observableArrayList();
-        
-        for (ParkingSlot slot : slotsMap.values()) {
-            if (slot.isOccupied()) {
-                items.add(slot.getSlotId() + " (" + slot.getVehiclePlate() + ")");
-            }
-        }
-        
-        occupiedSlotsCombo.setItems(items);
-    }
-    
     /**
      * Setup listener for occupied slots combo
      */
     private void setupOccupiedSlotsComboListener() {
         occupiedSlotsCombo.setOnAction(event -> {
-            String selectedItem = occupiedSlotsCombo.getValue();
-            if (selectedItem != null) {
-                String slotId = selectedItem.split(" ")[0];
-                ParkingSlot slot = slotsMap.get(slotId);
-                
-                if (slot != null && slot.isOccupied()) {
-                    durationLabel.setText(slot.getFormattedDuration());
-                    tenantInfoArea.setText(
-                        "Slot: " + slot.getSlotId() + "\n" +
-                        "Tenant: " + slot.getTenantName() + "\n" +
-                        "Vehicle: " + slot.getVehiclePlate() + "\n" +
-                        "Check-in: " + slot.getFormattedCheckInTime() + "\n" +
-                        "Duration: " + slot.getFormattedDuration()
-                    );
-                }
+            ParkingSlot slot = occupiedSlotsCombo.getValue();
+            if (slot != null && slot.isOccupied()) {
+                durationLabel.setText(slot.getFormattedDuration());
+                tenantInfoArea.setText(
+                    "Slot: " + slot.getSlotId() + "\n" +
+                    "Tenant: " + slot.getTenantName() + "\n" +
+                    "Vehicle: " + slot.getVehiclePlate() + "\n" +
+                    "Check-in: " + slot.getFormattedCheckInTime() + "\n" +
+                    "Duration: " + slot.getFormattedDuration()
+                );
             }
         });
     }
     
     @FXML
     private void releaseSlot() {
-        String selectedItem = occupiedSlotsCombo.getValue();
+        ParkingSlot slot = occupiedSlotsCombo.getValue();
         
-        if (selectedItem == null) {
+        if (slot == null) {
             showMessage(releaseStatusLabel, "⚠ Select a parking slot", "error");
             return;
         }
         
-        String slotId = selectedItem.split(" ")[0];
-        ParkingSlot slot = slotsMap.get(slotId);
-        
-        if (slot == null || !slot.isOccupied()) {
+        if (!slot.isOccupied()) {
             showMessage(releaseStatusLabel, "⚠ Slot is not occupied", "error");
             return;
         }
@@ -388,14 +316,11 @@ public class SPOTDashboardController implements Initializable {
         if (!waitingQueue.isEmpty()) {
             String nextCustomer = waitingQueue.poll();
             showMessage(releaseStatusLabel, "✓ Next customer: " + nextCustomer, "info");
-            updateWaitingQueueView();
+            waitingQueueRefresh.request();
         }
         
-        // Update UI
-        updateStatistics();
-        updateAvailableSlotsCombo();
-        updateOccupiedSlotsCombo();
-        setupSlotsGrid(); // Refresh grid
+        // Update UI on the next pulse, together with any other change before it
+        slotsChanged();
         clearReleaseForm();
     }
     
@@ -437,7 +362,11 @@ public class SPOTDashboardController implements Initializable {
             }
         } else {
             results.append("❌ Slot '").append(searchId).append("' not found!\n");
-            results.append("Available slots: ").append(String.join(", ", availableSlotsCombo.getItems()));
+            StringJoiner availableIds = new StringJoiner(", ");
+            for (ParkingSlot available : slotIndex.getAvailable()) {
+                availableIds.add(available.getSlotId());
+            }
+            results.append("Available slots: ").append(availableIds);
         }
         
         searchResultsArea.setText(results.toString());
@@ -451,7 +380,6 @@ public class SPOTDashboardController implements Initializable {
         contentArea.getChildren().clear();
         contentArea.getChildren().add(dashboardView);
         updateWaitingQueueView(); // Refresh waiting list
-        setupSlotsGrid(); // Refresh slots grid
     }
     
     @FXML
@@ -459,7 +387,6 @@ public class SPOTDashboardController implements Initializable {
         setActiveButton(bookSlotBtn);
         contentArea.getChildren().clear();
         contentArea.getChildren().add(bookSlotView);
-        updateAvailableSlotsCombo();
     }
     
     @FXML
@@ -467,7 +394,6 @@ public class SPOTDashboardController implements Initializable {
         setActiveButton(releaseSlotBtn);
         contentArea.getChildren().clear();
         contentArea.getChildren().add(releaseSlotView);
-        updateOccupiedSlotsCombo();
     }
     
     @FXML
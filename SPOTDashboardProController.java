@@ -1,3 +1,4 @@
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -6,7 +7,7 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.geometry.Pos;
+import javafx.util.StringConverter;
 
 import java.net.URL;
 import java.time.LocalDateTime;
@@ -19,6 +20,11 @@ import java.util.*;
  * - HashMap<String, ParkingSlot>: O(1) fast slot lookup by ID
  * - Queue<String>: FIFO waiting list for booking requests
  * - ArrayList<ParkingSlot>: Dynamic storage with insertion order preservation
+ * - SlotStatusIndex: live available/occupied lists, O(1) per status change
+ * 
+ * The ParkingLot itself runs in a ParkingEngineService on its own thread;
+ * these collections mirror it on the FX thread and change only through
+ * the engine's batched change deliveries.
  * 
  * Demonstrates all CRUD operations:
  * - Create (Insert): Book a parking slot
@@ -32,10 +38,19 @@ public class SPOTDashboardProController implements Initializable {
     
     private HashMap<String, ParkingSlot> slotsMap = new HashMap<>();
     private Queue<String> waitingQueue = new LinkedList<>();
-    private ArrayList<ParkingSlot> slotsList = new ArrayList<>();
+    private ArrayList<ParkingSlot> slotsList = new ArrayList<>(); // spot number - 1 -> slot
+    private HashMap<String, Integer> spotNumbers = new HashMap<>();
+    private ParkingEngineService engine;
+    private final SlotStatusIndex slotIndex = new SlotStatusIndex();
+    
+    // Coalesced view refreshes: changes mark them dirty, the next animation pulse runs each once
+    private final PulseRefresher refresher = new PulseRefresher();
+    private final PulseRefresher.Task statisticsRefresh = refresher.task(this::updateAllStatistics);
+    private final PulseRefresher.Task waitingQueueRefresh = refresher.task(this::updateWaitingQueueView);
     
-    private static final int TOTAL_SLOTS = 10;
     private static final String[] SLOT_IDS = {"A1", "A2", "A3", "A4", "A5", "B1", "B2", "B3", "B4", "B5"};
+    // Larger lots (-Dspot.capacity=20000) get generated slot IDs
+    private static final int TOTAL_SLOTS = Math.max(SLOT_IDS.length, Integer.getInteger(ParkingLot.CAPACITY_PROPERTY, 0));
     
     // ==================== FXML INJECTIONS - NAVBAR ==================== 
     
@@ -63,17 +78,19 @@ public class SPOTDashboardProController implements Initializable {
     @FXML private VBox searchSlotView;
     
     // Dashboard
-    @FXML private GridPane slotsGrid;
+    @FXML private StackPane slotsGridPane;
+    @FXML private ToggleButton densityToggle;
+    private final SlotGridView slotsGrid = new SlotGridView();
     @FXML private ListView<String> waitingQueueView;
     
     // Book Slot
     @FXML private TextField tenantNameField;
     @FXML private TextField vehiclePlateField;
-    @FXML private ComboBox<String> availableSlotsCombo;
+    @FXML private ComboBox<ParkingSlot> availableSlotsCombo;
     @FXML private Label bookStatusLabel;
     
     // Release Slot
-    @FXML private ComboBox<String> occupiedSlotsCombo;
+    @FXML private ComboBox<ParkingSlot> occupiedSlotsCombo;
     @FXML private Label durationLabel;
     @FXML private TextArea tenantInfoArea;
     @FXML private Label releaseStatusLabel;
@@ -92,6 +109,7 @@ public class SPOTDashboardProController implements Initializable {
     public void initialize(URL url, ResourceBundle resourceBundle) {
         loadLogo();
         initializeParkingSlots();
+        setupSlotsGrid();
         setupUI();
         showDashboard();
         updateAllStatistics();
@@ -116,22 +134,51 @@ public class SPOTDashboardProController implements Initializable {
      */
     private void initializeParkingSlots() {
         // Create all parking slots
-        for (String slotId : SLOT_IDS) {
+        for (int i = 0; i < TOTAL_SLOTS; i++) {
+            String slotId = TOTAL_SLOTS == SLOT_IDS.length ? SLOT_IDS[i] : ParkingSlot.generatedId(i);
             ParkingSlot slot = new ParkingSlot(slotId);
             slotsMap.put(slotId, slot);
             slotsList.add(slot);
+            spotNumbers.put(slotId, i + 1);
         }
         
-        // Add sample occupied slots
-        ParkingSlot slotA1 = slotsMap.get("A1");
-        slotA1.occupy("John Smith", "JXK-4521");
+        engine = new ParkingEngineService(new ParkingLot(TOTAL_SLOTS), Platform::runLater, this::applyChanges);
         
-        ParkingSlot slotB3 = slotsMap.get("B3");
-        slotB3.occupy("Maria Johnson", "LMN-8765");
+        // Add sample occupied slots
+        engine.submit(GateEvent.checkInAt("John Smith", "JXK-4521", spotNumbers.get("A1"), 0));
+        engine.submit(GateEvent.checkInAt("Maria Johnson", "LMN-8765", spotNumbers.get("B3"), 0));
         
         // Add sample waiting customers
-        waitingQueue.offer("Alex Brown");
-        waitingQueue.offer("Sophie Williams");
+        engine.call(lot -> lot.addToWaitingList("Alex Brown"));
+        engine.call(lot -> lot.addToWaitingList("Sophie Williams"));
+    }
+    
+    /**
+     * Apply a batch of engine changes to the slots and the waiting queue
+     * Runs on the FX thread; the views refresh once on the next pulse however large the batch.
+     */
+    private void applyChanges(List<ParkingEngineService.Change> changes) {
+        for (ParkingEngineService.Change change : changes) {
+            switch (change.getType()) {
+                case CHECK_IN:
+                    slotsList.get(change.getSpotNumber() - 1).occupy(change.getTenantName(),
+                            change.getVehiclePlate(), change.getCheckInMillis());
+                    slotsChanged();
+                    break;
+                case CHECK_OUT:
+                    slotsList.get(change.getSpotNumber() - 1).release();
+                    slotsChanged();
+                    break;
+                case WAITLISTED:
+                    waitingQueue.offer(change.getWaitingEntry());
+                    waitingQueueRefresh.request();
+                    break;
+                case WAITING_PROCESSED:
+                    waitingQueue.poll();
+                    waitingQueueRefresh.request();
+                    break;
+            }
+        }
     }
     
     /**
@@ -139,8 +186,7 @@ public class SPOTDashboardProController implements Initializable {
      */
     private void setupUI() {
         updateWaitingQueueView();
-        updateAvailableSlotsCombo();
-        updateOccupiedSlotsCombo();
+        setupSlotCombos();
         setupOccupiedSlotsListener();
     }
     
@@ -148,20 +194,12 @@ public class SPOTDashboardProController implements Initializable {
     
     /**
      * Update all statistics across the application
-     * Demonstrates: HashMap traversal and counting
+     * Demonstrates: Counting from the index instead of traversing the HashMap
      */
     private void updateAllStatistics() {
         int total = slotsMap.size();
-        int occupied = 0;
-        
-        // Traverse HashMap to count occupied slots
-        for (ParkingSlot slot : slotsMap.values()) {
-            if (slot.isOccupied()) {
-                occupied++;
-            }
-        }
-        
-        int available = total - occupied;
+        int occupied = slotIndex.getOccupiedCount();
+        int available = slotIndex.getAvailableCount();
         double occupancyRate = total > 0 ? (occupied * 100.0) / total : 0;
         
         // Update labels
@@ -190,35 +228,35 @@ public class SPOTDashboardProController implements Initializable {
     }
     
     /**
-     * Update available slots combo box
-     * Demonstrates: Filtering HashMap values
+     * Show the index's live lists in the slot combo boxes
+     * Set once: a booking or release moves one slot between the lists, no rebuild.
      */
-    private void updateAvailableSlotsCombo() {
-        ObservableList<String> items = FXCollections.observableArrayList();
-        
-        for (ParkingSlot slot : slotsMap.values()) {
-            if (slot.isAvailable()) {
-                items.add(slot.getSlotId());
-            }
-        }
-        
-        availableSlotsCombo.setItems(items);
+    private void setupSlotCombos() {
+        slotIndex.setSlots(slotsList);
+        availableSlotsCombo.setConverter(slotConverter(false));
+        availableSlotsCombo.setItems(slotIndex.getAvailable());
+        occupiedSlotsCombo.setConverter(slotConverter(true));
+        occupiedSlotsCombo.setItems(slotIndex.getOccupied());
     }
     
     /**
-     * Update occupied slots combo box
-     * Demonstrates: Filtering HashMap values
+     * Combo box text for a slot: its ID, optionally with the parked vehicle
      */
-    private void updateOccupiedSlotsCombo() {
-        ObservableList<String> items = FXCollections.observableArrayList();
-        
-        for (ParkingSlot slot : slotsMap.values()) {
-            if (slot.isOccupied()) {
-                items.add(slot.getSlotId() + " (" + slot.getVehiclePlate() + ")");
+    private static StringConverter<ParkingSlot> slotConverter(boolean withPlate) {
+        return new StringConverter<>() {
+            @Override
+            public String toString(ParkingSlot slot) {
+                if (slot == null) {
+                    return "";
+                }
+                return withPlate ? slot.getSlotId() + " (" + slot.getVehiclePlate() + ")" : slot.getSlotId();
             }
-        }
-        
-        occupiedSlotsCombo.setItems(items);
+            
+            @Override
+            public ParkingSlot fromString(String text) {
+                return null; // combos are not editable
+            }
+        };
     }
     
     /**
@@ -226,23 +264,18 @@ public class SPOTDashboardProController implements Initializable {
      */
     private void setupOccupiedSlotsListener() {
         occupiedSlotsCombo.setOnAction(event -> {
-            String selectedItem = occupiedSlotsCombo.getValue();
-            if (selectedItem != null) {
-                String slotId = selectedItem.split(" ")[0];
-                ParkingSlot slot = slotsMap.get(slotId);
-                
-                if (slot != null && slot.isOccupied()) {
-                    durationLabel.setText(slot.getFormattedDuration());
-                    tenantInfoArea.setText(
-                        "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
-                        "Slot ID:        " + slot.getSlotId() + "\n" +
-                        "Tenant Name:    " + slot.getTenantName() + "\n" +
-                        "Vehicle Plate:  " + slot.getVehiclePlate() + "\n" +
-                        "Check-in Time:  " + slot.getFormattedCheckInTime() + "\n" +
-                        "Duration:       " + slot.getFormattedDuration() + "\n" +
-                        "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━"
-                    );
-                }
+            ParkingSlot slot = occupiedSlotsCombo.getValue();
+            if (slot != null && slot.isOccupied()) {
+                durationLabel.setText(slot.getFormattedDuration());
+                tenantInfoArea.setText(
+                    "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
+                    "Slot ID:        " + slot.getSlotId() + "\n" +
+                    "Tenant Name:    " + slot.getTenantName() + "\n" +
+                    "Vehicle Plate:  " + slot.getVehiclePlate() + "\n" +
+                    "Check-in Time:  " + slot.getFormattedCheckInTime() + "\n" +
+                    "Duration:       " + slot.getFormattedDuration() + "\n" +
+                    "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━"
+                );
             }
         });
     }
@@ -250,96 +283,22 @@ public class SPOTDashboardProController implements Initializable {
     // ==================== DASHBOARD VIEW ====================
     
     /**
-     * Setup the parking slots grid with visual cards
-     * Demonstrates: HashMap traversal
+     * Set up the virtualized slots grid once
+     * Only visible slots get cards, bound to the slot, so booking or releasing
+     * a slot updates that one card; the toggle switches to the density map.
      */
     private void setupSlotsGrid() {
-        slotsGrid.getChildren().clear();
-        slotsGrid.setStyle("-fx-hgap: 16; -fx-vgap: 16; -fx-padding: 8;");
-        
-        int col = 0, row = 0;
-        for (ParkingSlot slot : slotsMap.values()) {
-            VBox card = createSlotCard(slot);
-            slotsGrid.add(card, col, row);
-            
-            col++;
-            if (col >= 5) {
-                col = 0;
-                row++;
-            }
-        }
+        slotsGrid.setCellSize(150, 150, 16);
+        slotsGrid.setSlots(slotsList);
+        slotsGridPane.getChildren().setAll(slotsGrid);
+        densityToggle.selectedProperty().bindBidirectional(slotsGrid.densityViewProperty());
     }
     
     /**
-     * Create a professional slot card UI component
+     * Schedule the views that depend on slot status; each refreshes once on the next pulse
      */
-    private VBox createSlotCard(ParkingSlot slot) {
-        VBox card = new VBox(10);
-        card.setStyle(
-            "-fx-border-color: #30363D; " +
-            "-fx-border-width: 1; " +
-            "-fx-border-radius: 8; " +
-            "-fx-padding: 16; " +
-            "-fx-background-color: #1C1F26; " +
-            "-fx-background-radius: 8; " +
-            "-fx-effect: dropshadow(gaussian, rgba(0, 0, 0, 0.2), 6, 0, 0, 1); " +
-            "-fx-min-width: 140; " +
-            "-fx-min-height: 140;"
-        );
-        card.setAlignment(Pos.TOP_CENTER);
-        
-        // Slot ID
-        Label slotIdLabel = new Label(slot.getSlotId());
-        slotIdLabel.setStyle(
-            "-fx-font-size: 24; " +
-            "-fx-font-weight: bold; " +
-            "-fx-text-fill: #58A6FF;"
-        );
-        
-        // Status badge
-        Label statusLabel = new Label(slot.getStatus());
-        if (slot.isAvailable()) {
-            statusLabel.setStyle(
-                "-fx-font-size: 10; " +
-                "-fx-font-weight: bold; " +
-                "-fx-text-fill: #ffffff; " +
-                "-fx-padding: 6 10 6 10; " +
-                "-fx-background-color: #3FB950; " +
-                "-fx-background-radius: 4;"
-            );
-        } else {
-            statusLabel.setStyle(
-                "-fx-font-size: 10; " +
-                "-fx-font-weight: bold; " +
-                "-fx-text-fill: #ffffff; " +
-                "-fx-padding: 6 10 6 10; " +
-                "-fx-background-color: #F85149; " +
-                "-fx-background-radius: 4;"
-            );
-        }
-        
-        // Vehicle info
-        Label infoLabel = new Label();
-        if (slot.isOccupied()) {
-            infoLabel.setText(slot.getVehiclePlate());
-            infoLabel.setStyle(
-                "-fx-font-size: 10; " +
-                "-fx-text-fill: #C9D1D9; " +
-                "-fx-font-weight: 500; " +
-                "-fx-wrap-text: true;"
-            );
-        } else {
-            infoLabel.setText("Available");
-            infoLabel.setStyle(
-                "-fx-font-size: 10; " +
-                "-fx-text-fill: #3FB950; " +
-                "-fx-font-weight: bold;"
-            );
-        }
-        
-        card.getChildren().addAll(slotIdLabel, statusLabel, infoLabel);
-        
-        return card;
+    private void slotsChanged() {
+        statisticsRefresh.request();
     }
     
     // ==================== BOOK SLOT OPERATIONS ====================
@@ -348,7 +307,7 @@ public class SPOTDashboardProController implements Initializable {
     private void bookSlot() {
         String tenantName = tenantNameField.getText().trim();
         String vehiclePlate = vehiclePlateField.getText().trim();
-        String selectedSlot = availableSlotsCombo.getValue();
+        ParkingSlot selectedSlot = availableSlotsCombo.getValue();
         
         // Validation
         if (tenantName.isEmpty()) {
@@ -364,26 +323,22 @@ public class SPOTDashboardProController implements Initializable {
             return;
         }
         
-        // Get slot from HashMap (O(1) operation)
-        ParkingSlot slot = slotsMap.get(selectedSlot);
-        if (slot == null || !slot.isAvailable()) {
-            // Add to waiting queue if slot not available
-            waitingQueue.offer(tenantName + " (" + vehiclePlate + ")");
-            showMessage(bookStatusLabel, "✓ Added to waiting queue", "info");
-            updateWaitingQueueView();
-            clearBookForm();
-            return;
-        }
-        
-        // Book the slot
-        slot.occupy(tenantName, vehiclePlate);
-        showMessage(bookStatusLabel, "✓ Slot booked successfully!", "success");
-        
-        // Update UI
-        updateAllStatistics();
-        updateAvailableSlotsCombo();
-        updateOccupiedSlotsCombo();
-        setupSlotsGrid();
+        // Book the slot on the engine; a slot taken meanwhile puts the customer on the waiting queue
+        int spotNumber = spotNumbers.get(selectedSlot.getSlotId());
+        engine.submit(GateEvent.checkInAt(tenantName, vehiclePlate, spotNumber, 0))
+                .thenAcceptAsync(result -> {
+                    switch (result.getOutcome()) {
+                        case PARKED:
+                            showMessage(bookStatusLabel, "✓ Slot booked successfully!", "success");
+                            break;
+                        case WAITLISTED:
+                            showMessage(bookStatusLabel, "✓ Added to waiting queue", "info");
+                            break;
+                        default:
+                            showMessage(bookStatusLabel, "⚠ Vehicle is already parked", "error");
+                            break;
+                    }
+                }, Platform::runLater);
         clearBookForm();
     }
     
@@ -399,37 +354,36 @@ public class SPOTDashboardProController implements Initializable {
     
     @FXML
     private void releaseSlot() {
-        String selectedItem = occupiedSlotsCombo.getValue();
+        ParkingSlot slot = occupiedSlotsCombo.getValue();
         
-        if (selectedItem == null) {
+        if (slot == null) {
             showMessage(releaseStatusLabel, "⚠ Select a parking slot", "error");
             return;
         }
         
-        String slotId = selectedItem.split(" ")[0];
-        ParkingSlot slot = slotsMap.get(slotId);
-        
-        if (slot == null || !slot.isOccupied()) {
+        if (!slot.isOccupied()) {
             showMessage(releaseStatusLabel, "⚠ Slot is not occupied", "error");
             return;
         }
         
-        // Release the slot
-        slot.release();
-        showMessage(releaseStatusLabel, "✓ Slot released successfully!", "success");
-        
-        // Process waiting queue
-        if (!waitingQueue.isEmpty()) {
-            String nextCustomer = waitingQueue.poll();
-            showMessage(releaseStatusLabel, "✓ Next customer: " + nextCustomer, "info");
-            updateWaitingQueueView();
-        }
-        
-        // Update UI
-        updateAllStatistics();
-        updateAvailableSlotsCombo();
-        updateOccupiedSlotsCombo();
-        setupSlotsGrid();
+        // Release the slot and process the waiting queue on the engine
+        int spotNumber = spotNumbers.get(slot.getSlotId());
+        engine.call(lot -> {
+            if (lot.checkOutVehicle(spotNumber) == null) {
+                return null; // released by a gate in the meantime
+            }
+            String nextCustomer = lot.getNextWaiting();
+            lot.processWaiting();
+            return nextCustomer != null ? nextCustomer : "";
+        }).thenAcceptAsync(nextCustomer -> {
+            if (nextCustomer == null) {
+                showMessage(releaseStatusLabel, "⚠ Slot is not occupied", "error");
+            } else if (nextCustomer.isEmpty()) {
+                showMessage(releaseStatusLabel, "✓ Slot released successfully!", "success");
+            } else {
+                showMessage(releaseStatusLabel, "✓ Next customer: " + nextCustomer, "info");
+            }
+        }, Platform::runLater);
         clearReleaseForm();
     }
     
@@ -476,10 +430,8 @@ public class SPOTDashboardProController implements Initializable {
         } else {
             results.append("❌ Slot '").append(searchId).append("' not found!\n\n");
             results.append("Available slots:\n");
-            for (ParkingSlot s : slotsMap.values()) {
-                if (s.isAvailable()) {
-                    results.append("  • ").append(s.getSlotId()).append("\n");
-                }
+            for (ParkingSlot s : slotIndex.getAvailable()) {
+                results.append("  • ").append(s.getSlotId()).append("\n");
             }
         }
         
@@ -493,7 +445,6 @@ public class SPOTDashboardProController implements Initializable {
         setActiveNavButton(navDashboard);
         contentArea.getChildren().clear();
         contentArea.getChildren().add(dashboardView);
-        setupSlotsGrid();
         updateWaitingQueueView();
     }
     
@@ -502,7 +453,6 @@ public class SPOTDashboardProController implements Initializable {
         setActiveNavButton(navBook);
         contentArea.getChildren().clear();
         contentArea.getChildren().add(bookSlotView);
-        updateAvailableSlotsCombo();
     }
     
     @FXML
@@ -510,7 +460,6 @@ public class SPOTDashboardProController implements Initializable {
         setActiveNavButton(navRelease);
         contentArea.getChildren().clear();
         contentArea.getChildren().add(releaseSlotView);
-        updateOccupiedSlotsCombo();
     }
     
     @FXML
@@ -2,12 +2,33 @@ import java.util.ArrayList;
 import java.util.Scanner;
 
 public class SPOTSystem {
+    private static final int RECENT_SESSIONS_SHOWN = 5;
+    private static final int TREND_MINUTES_SHOWN = 10;
+    
     private ParkingLot parkingLot;
+    private SessionArchive sessionArchive;
+    private ParkingStatistics statistics;
+    private OccupancyTimeSeries occupancySeries;
     private Scanner scanner;
     
     public SPOTSystem() {
         this.parkingLot = new ParkingLot();
+        this.sessionArchive = new SessionArchive();
         this.scanner = new Scanner(System.in);
+        
+        // Restore saved state and journal every change from here on; running without it would lose the saved lot
+        if (!FileHandler.openJournal(parkingLot)) {
+            throw new IllegalStateException("Saved parking data could not be restored");
+        }
+        
+        // Keep completed sessions for history lookups (after replay, which is not new history)
+        parkingLot.addListener(sessionArchive);
+        
+        // Running dwell, turnover and occupancy aggregates for reports
+        this.statistics = new ParkingStatistics(parkingLot);
+        parkingLot.addListener(statistics);
+        this.occupancySeries = new OccupancyTimeSeries(parkingLot.getOccupiedSpotsCount());
+        parkingLot.addListener(occupancySeries);
     }
     
     /**
@@ -168,6 +189,7 @@ public class SPOTSystem {
         
         if (ticket == null) {
             System.out.println("Vehicle not found in parking lot.");
+            showRecentSessions(vehiclePlate);
             return;
         }
         
@@ -179,6 +201,23 @@ public class SPOTSystem {
         System.out.println("-------------------");
     }
     
+    /**
+     * Show the latest archived sessions for a plate
+     */
+    private void showRecentSessions(String vehiclePlate) {
+        ArrayList<ParkingTicket> sessions = sessionArchive.getSessionsForPlate(vehiclePlate);
+        if (sessions.isEmpty()) {
+            return;
+        }
+        
+        System.out.println("\nPrevious sessions (" + sessions.size() + " total):");
+        for (int i = sessions.size() - 1; i >= Math.max(0, sessions.size() - RECENT_SESSIONS_SHOWN); i--) {
+            ParkingTicket session = sessions.get(i);
+            System.out.println("Spot #" + session.getSpotNumber() + " | " + session.getCheckInTimeString()
+                    + " -> " + session.getCheckOutTimeString() + " | Tenant: " + session.getTenantName());
+        }
+    }
+    
     /**
      * View waiting list
      */
@@ -190,11 +229,11 @@ public class SPOTSystem {
             return;
         }
         
-        ArrayList<String> waiting = parkingLot.getWaitingList();
-        System.out.println("Total waiting: " + waiting.size());
+        System.out.println("Total waiting: " + parkingLot.getWaitingListSize());
         System.out.println("\nWaiting Vehicles:");
-        for (int i = 0; i < waiting.size(); i++) {
-            System.out.println((i + 1) + ". " + waiting.get(i));
+        int position = 1;
+        for (String vehicle : parkingLot.getWaitingEntries()) {
+            System.out.println(position++ + ". " + vehicle);
         }
         System.out.println("-------------------");
     }
@@ -211,6 +250,26 @@ public class SPOTSystem {
                 (parkingLot.getOccupiedSpotsCount() * 100.0 / parkingLot.getTotalSpots())));
         System.out.println("Vehicles in Waiting List: " + parkingLot.getWaitingListSize());
         
+        System.out.println("\nSession Statistics (since " + TimeFormat.format(statistics.getStartedMillis()) + "):");
+        System.out.println("Arrivals: " + statistics.getArrivals()
+                + " | Completed Sessions: " + statistics.getCompletedSessions());
+        System.out.println("Peak Occupancy: " + statistics.getPeakOccupancy() + " spots at "
+                + TimeFormat.format(statistics.getPeakOccupancyMillis()));
+        if (statistics.getCompletedSessions() > 0) {
+            System.out.println(String.format("Dwell Time (min): avg %.1f | median %.1f | p95 %.1f | p99 %.1f | max %.1f",
+                    statistics.getAverageDwellMinutes(), statistics.getMedianDwellMinutes(),
+                    statistics.getDwellPercentileMinutes(95), statistics.getDwellPercentileMinutes(99),
+                    statistics.getLongestDwellMinutes()));
+            System.out.println(String.format("Turnover: %.2f sessions per spot (%.2f per spot per day)",
+                    statistics.getTurnoverPerSpot(), statistics.getTurnoverPerSpotPerDay()));
+        }
+        
+        System.out.println("\nOccupancy Trend (last " + TREND_MINUTES_SHOWN + " minutes):");
+        occupancySeries.forEachSlot(OccupancyTimeSeries.Resolution.MINUTE, TREND_MINUTES_SHOWN,
+                (start, arrivals, departures, end, peak, average) ->
+                        System.out.println(String.format("  %s  avg %.1f | peak %d | in %d | out %d",
+                                TimeFormat.format(start).substring(11, 16), average, peak, arrivals, departures)));
+        
         ArrayList<ParkingTicket> vehicles = parkingLot.getAllParkedVehicles();
         if (!vehicles.isEmpty()) {
             System.out.println("\nParked Vehicles List:");
@@ -272,11 +331,19 @@ public class SPOTSystem {
             }
         } while (choice != 7);
         
+        FileHandler.closeJournal();
         scanner.close();
     }
     
     public static void main(String[] args) {
-        SPOTSystem system = new SPOTSystem();
+        SPOTSystem system;
+        try {
+            system = new SPOTSystem();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage() + "; not starting, so the saved files are left untouched.");
+            System.exit(1);
+            return;
+        }
         system.run();
     }
 }
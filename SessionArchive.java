@@ -0,0 +1,188 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory archive of completed parking sessions
+ * Registered as a ParkingLotListener, it keeps every checked-out ticket in
+ * flat column arrays (check-in, check-out, spot, tenant id, plate id) with
+ * two indexes over the record numbers:
+ * - time buckets: one bucket per hour of check-in. A session of at most
+ *   LOOKBACK_HOURS that overlaps a window began no earlier than that many
+ *   hours before it, so an overlap query opens only the buckets from there to
+ *   the window end instead of scanning all history. Longer sessions are rare
+ *   and kept in a separate list that every query reads, so one very long
+ *   stay does not widen the range for everyone else.
+ * - plates: record numbers per plate id, in check-out order
+ * All methods are synchronized, so several lots (e.g. facility shards) can
+ * share one archive and queries can run from any thread.
+ */
+public class SessionArchive implements ParkingLotListener {
+    public static final long BUCKET_MILLIS = 60 * 60 * 1000L;
+    public static final int LOOKBACK_HOURS = 24;
+    private static final int INITIAL_CAPACITY = 1024;
+    
+    // Session columns, indexed by record number (check-out order)
+    private long[] checkIns = new long[INITIAL_CAPACITY];
+    private long[] checkOuts = new long[INITIAL_CAPACITY];
+    private int[] spots = new int[INITIAL_CAPACITY];
+    private int[] tenantIds = new int[INITIAL_CAPACITY];
+    private int[] plateIds = new int[INITIAL_CAPACITY];
+    private int size;
+    
+    // Hour of check-in -> bucket of record numbers, for sessions up to LOOKBACK_HOURS
+    private final TreeMap<Long, Bucket> buckets = new TreeMap<>();
+    private final Bucket longSessions = new Bucket();
+    
+    // Plate id -> record numbers
+    private int[][] byPlate = new int[INITIAL_CAPACITY][];
+    private int[] byPlateCount = new int[INITIAL_CAPACITY];
+    
+    @Override
+    public void onCheckOut(ParkingTicket ticket) {
+        record(ticket.getTenantId(), ticket.getPlateId(), ticket.getSpotNumber(),
+                ticket.getCheckInMillis(), ticket.getCheckOutMillis());
+    }
+    
+    /**
+     * Add a completed session
+     */
+    public synchronized void record(int tenantId, int plateId, int spotNumber, long checkInMillis, long checkOutMillis) {
+        if (size == checkIns.length) {
+            int capacity = size << 1;
+            checkIns = Arrays.copyOf(checkIns, capacity);
+            checkOuts = Arrays.copyOf(checkOuts, capacity);
+            spots = Arrays.copyOf(spots, capacity);
+            tenantIds = Arrays.copyOf(tenantIds, capacity);
+            plateIds = Arrays.copyOf(plateIds, capacity);
+        }
+        
+        int record = size++;
+        checkIns[record] = checkInMillis;
+        checkOuts[record] = checkOutMillis;
+        spots[record] = spotNumber;
+        tenantIds[record] = tenantId;
+        plateIds[record] = plateId;
+        
+        if (checkOutMillis - checkInMillis > LOOKBACK_HOURS * BUCKET_MILLIS
+                || checkOutMillis < checkInMillis) {
+            longSessions.add(record);
+        } else {
+            long hour = Math.floorDiv(checkInMillis, BUCKET_MILLIS);
+            Bucket bucket = buckets.get(hour);
+            if (bucket == null) {
+                bucket = new Bucket();
+                buckets.put(hour, bucket);
+            }
+            bucket.add(record);
+        }
+        
+        if (plateId >= byPlate.length) {
+            int capacity = Math.max(byPlate.length << 1, plateId + 1);
+            byPlate = Arrays.copyOf(byPlate, capacity);
+            byPlateCount = Arrays.copyOf(byPlateCount, capacity);
+        }
+        int[] records = byPlate[plateId];
+        int count = byPlateCount[plateId];
+        if (records == null) {
+            records = new int[4];
+        } else if (count == records.length) {
+            records = Arrays.copyOf(records, count << 1);
+        }
+        records[count] = record;
+        byPlate[plateId] = records;
+        byPlateCount[plateId] = count + 1;
+    }
+    
+    /**
+     * Visit sessions that overlap [fromMillis, toMillis), i.e. parked at any point in the window
+     * Opens the check-in buckets from LOOKBACK_HOURS before the window start up
+     * to the window end, then the long sessions. Any bounds work, including
+     * Long.MIN_VALUE/MAX_VALUE for an open-ended window; an empty window visits nothing.
+     */
+    public synchronized void forEachSessionBetween(long fromMillis, long toMillis, Consumer<ParkingTicket> action) {
+        if (toMillis <= fromMillis) {
+            return;
+        }
+        
+        // Hour numbers are far from the long range, so these cannot overflow
+        long firstHour = Math.floorDiv(fromMillis, BUCKET_MILLIS) - LOOKBACK_HOURS;
+        long lastHour = Math.floorDiv(toMillis - 1, BUCKET_MILLIS);
+        for (Map.Entry<Long, Bucket> entry : buckets.subMap(firstHour, true, lastHour, true).entrySet()) {
+            visitOverlapping(entry.getValue(), fromMillis, toMillis, action);
+        }
+        visitOverlapping(longSessions, fromMillis, toMillis, action);
+    }
+    
+    /**
+     * Get sessions that overlap [fromMillis, toMillis), by check-in hour, sessions over LOOKBACK_HOURS last
+     */
+    public ArrayList<ParkingTicket> getSessionsBetween(long fromMillis, long toMillis) {
+        ArrayList<ParkingTicket> sessions = new ArrayList<>();
+        forEachSessionBetween(fromMillis, toMillis, sessions::add);
+        return sessions;
+    }
+    
+    /**
+     * Get every archived session for a plate, in check-out order
+     */
+    public synchronized ArrayList<ParkingTicket> getSessionsForPlate(String vehiclePlate) {
+        int plateId = SymbolTable.PLATES.find(vehiclePlate);
+        if (plateId < 0 || plateId >= byPlate.length || byPlate[plateId] == null) {
+            return new ArrayList<>();
+        }
+        
+        int[] records = byPlate[plateId];
+        int count = byPlateCount[plateId];
+        ArrayList<ParkingTicket> sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sessions.add(toTicket(records[i]));
+        }
+        return sessions;
+    }
+    
+    /**
+     * Get number of archived sessions
+     */
+    public synchronized int getSessionCount() {
+        return size;
+    }
+    
+    /**
+     * Get number of hourly buckets holding sessions
+     */
+    public synchronized int getBucketCount() {
+        return buckets.size();
+    }
+    
+    private void visitOverlapping(Bucket bucket, long fromMillis, long toMillis, Consumer<ParkingTicket> action) {
+        for (int i = 0; i < bucket.count; i++) {
+            int record = bucket.records[i];
+            if (checkIns[record] < toMillis && checkOuts[record] > fromMillis) {
+                action.accept(toTicket(record));
+            }
+        }
+    }
+    
+    private ParkingTicket toTicket(int record) {
+        return new ParkingTicket(tenantIds[record], plateIds[record], spots[record],
+                checkIns[record], checkOuts[record]);
+    }
+    
+    /**
+     * Record numbers checked in within one hour (or the long sessions)
+     */
+    private static class Bucket {
+        int[] records = new int[16];
+        int count;
+        
+        void add(int record) {
+            if (count == records.length) {
+                records = Arrays.copyOf(records, count << 1);
+            }
+            records[count++] = record;
+        }
+    }
+}
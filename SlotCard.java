@@ -0,0 +1,79 @@
+import javafx.beans.binding.Bindings;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+
+/**
+ * Dashboard card for one parking slot, bound to the slot's JavaFX properties
+ * The card is built once and updates itself in place: a check-in or release
+ * changes the bound labels and swaps one style class on this card only.
+ * Looks come from the stylesheet (slot-card, slot-id, slot-status-*,
+ * slot-info*), so a status change does not re-parse inline styles.
+ * setSlot rebinds the same nodes to another slot.
+ */
+public final class SlotCard extends VBox {
+    private static final String AVAILABLE = "Available";
+    
+    private final Label slotIdLabel = new Label();
+    private final Label statusLabel = new Label();
+    private final Label infoLabel = new Label();
+    private final ChangeListener<String> statusListener = (observable, oldStatus, newStatus) -> applyStatus(newStatus);
+    
+    private ParkingSlot slot;
+    
+    public SlotCard(ParkingSlot slot) {
+        getStyleClass().add("slot-card");
+        slotIdLabel.getStyleClass().add("slot-id");
+        statusLabel.getStyleClass().add("slot-status");
+        infoLabel.getStyleClass().add("slot-info");
+        infoLabel.setWrapText(true);
+        getChildren().addAll(slotIdLabel, statusLabel, infoLabel);
+        setSlot(slot);
+    }
+    
+    public ParkingSlot getSlot() {
+        return slot;
+    }
+    
+    /**
+     * Show another slot (or none) in this card
+     */
+    public void setSlot(ParkingSlot slot) {
+        if (this.slot != null) {
+            this.slot.statusProperty().removeListener(statusListener);
+            slotIdLabel.textProperty().unbind();
+            statusLabel.textProperty().unbind();
+            infoLabel.textProperty().unbind();
+        }
+        this.slot = slot;
+        if (slot == null) {
+            slotIdLabel.setText("");
+            statusLabel.setText("");
+            infoLabel.setText("");
+            return;
+        }
+        
+        slotIdLabel.textProperty().bind(slot.slotIdProperty());
+        statusLabel.textProperty().bind(slot.statusProperty());
+        infoLabel.textProperty().bind(Bindings.when(slot.statusProperty().isEqualTo(AVAILABLE))
+                .then(AVAILABLE)
+                .otherwise(slot.vehiclePlateProperty()));
+        slot.statusProperty().addListener(statusListener);
+        applyStatus(slot.getStatus());
+    }
+    
+    private void applyStatus(String status) {
+        boolean available = AVAILABLE.equals(status);
+        swapStyleClass(statusLabel, available, "slot-status-available", "slot-status-occupied");
+        swapStyleClass(infoLabel, available, "slot-info-available", "slot-plate");
+    }
+    
+    private static void swapStyleClass(Label label, boolean first, String firstClass, String secondClass) {
+        String add = first ? firstClass : secondClass;
+        String remove = first ? secondClass : firstClass;
+        label.getStyleClass().remove(remove);
+        if (!label.getStyleClass().contains(add)) {
+            label.getStyleClass().add(add);
+        }
+    }
+}
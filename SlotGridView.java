@@ -0,0 +1,312 @@
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Virtualized slot map for lots of any size
+ * In card mode only the rows in view have nodes: a few dozen SlotCards are
+ * positioned over the visible window and, while scrolling, cards that leave
+ * it are rebound to the slots coming into view instead of being created anew.
+ * In density mode the whole lot is one canvas with a small coloured square per
+ * slot, sized to fit the view; a status change repaints one square. Clicking
+ * a square zooms back into card mode at that slot.
+ */
+public final class SlotGridView extends Region {
+    private static final double MIN_DENSITY_CELL = 3;  // pixels per slot, 1 of them gap
+    private static final double MAX_DENSITY_CELL = 14;
+    private static final Color AVAILABLE_COLOR = Color.web("#3FB950");
+    private static final Color OCCUPIED_COLOR = Color.web("#F85149");
+    
+    private final ScrollBar scrollBar = new ScrollBar();
+    private final Canvas densityCanvas = new Canvas();
+    private final Rectangle clip = new Rectangle();
+    private final BooleanProperty densityView = new SimpleBooleanProperty(this, "densityView");
+    
+    private double cellWidth = 150;
+    private double cellHeight = 150;
+    private double gap = 16;
+    
+    private List<ParkingSlot> slots = Collections.emptyList();
+    private final ArrayList<ChangeListener<String>> statusListeners = new ArrayList<>();
+    
+    // Cards for slots firstShown .. firstShown + shown.size() - 1; cards out of view wait in spare
+    private ArrayList<SlotCard> shown = new ArrayList<>();
+    private ArrayList<SlotCard> nextShown = new ArrayList<>();
+    private final ArrayDeque<SlotCard> spare = new ArrayDeque<>();
+    private int firstShown;
+    private int scrollToIndex = -1;
+    
+    // Density geometry of the last full paint, for single-square repaints and clicks
+    private int densityColumns;
+    private double densityCell;
+    private double densityOffset;
+    private boolean densityDirty = true;
+    
+    public SlotGridView() {
+        getStyleClass().add("slot-grid-view");
+        scrollBar.setOrientation(Orientation.VERTICAL);
+        scrollBar.valueProperty().addListener((observable, oldValue, newValue) -> requestLayout());
+        densityView.addListener((observable, oldValue, newValue) -> {
+            densityDirty = true;
+            scrollBar.setValue(0);
+            requestLayout();
+        });
+        
+        densityCanvas.setVisible(false);
+        densityCanvas.setOnMouseClicked(event -> {
+            int index = densityIndexAt(event.getX(), event.getY());
+            if (index >= 0) {
+                setDensityView(false);
+                scrollTo(index);
+            }
+        });
+        setOnScroll(event -> {
+            scrollBar.setValue(clamp(scrollBar.getValue() - event.getDeltaY(), 0, scrollBar.getMax()));
+            event.consume();
+        });
+        
+        setClip(clip);
+        getChildren().addAll(densityCanvas, scrollBar);
+    }
+    
+    /**
+     * Show these slots, in order; call again when the list itself changes
+     * The view keeps its own copy, so indexes and listeners stay in step with it.
+     */
+    public void setSlots(List<ParkingSlot> slots) {
+        for (int i = 0; i < statusListeners.size(); i++) {
+            this.slots.get(i).statusProperty().removeListener(statusListeners.get(i));
+        }
+        statusListeners.clear();
+        
+        this.slots = List.copyOf(slots);
+        for (int i = 0; i < this.slots.size(); i++) {
+            int index = i;
+            ChangeListener<String> listener = (observable, oldStatus, newStatus) -> repaintDensityCell(index);
+            this.slots.get(i).statusProperty().addListener(listener);
+            statusListeners.add(listener);
+        }
+        refresh();
+    }
+    
+    /**
+     * Rebind every card and repaint, e.g. after slot details changed
+     */
+    public void refresh() {
+        showRange(0, 0);
+        densityDirty = true;
+        requestLayout();
+    }
+    
+    /**
+     * Set the card size and the space between cards
+     */
+    public void setCellSize(double cellWidth, double cellHeight, double gap) {
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.gap = gap;
+        requestLayout();
+    }
+    
+    /**
+     * Scroll the card view so that the slot at this index is in view
+     */
+    public void scrollTo(int index) {
+        scrollToIndex = index;
+        requestLayout();
+    }
+    
+    public boolean isDensityView() {
+        return densityView.get();
+    }
+    
+    public void setDensityView(boolean value) {
+        densityView.set(value);
+    }
+    
+    public BooleanProperty densityViewProperty() {
+        return densityView;
+    }
+    
+    @Override
+    protected double computePrefWidth(double height) {
+        Insets insets = getInsets();
+        return insets.getLeft() + 5 * (cellWidth + gap) - gap + scrollBar.prefWidth(-1) + insets.getRight();
+    }
+    
+    @Override
+    protected double computePrefHeight(double width) {
+        Insets insets = getInsets();
+        return insets.getTop() + 2 * (cellHeight + gap) - gap + insets.getBottom();
+    }
+    
+    @Override
+    protected double computeMinHeight(double width) {
+        Insets insets = getInsets();
+        return insets.getTop() + cellHeight + insets.getBottom();
+    }
+    
+    @Override
+    protected void layoutChildren() {
+        Insets insets = getInsets();
+        double barWidth = scrollBar.prefWidth(-1);
+        double left = insets.getLeft();
+        double top = insets.getTop();
+        double width = Math.max(0, getWidth() - left - insets.getRight() - barWidth);
+        double height = Math.max(0, getHeight() - top - insets.getBottom());
+        clip.setWidth(getWidth());
+        clip.setHeight(getHeight());
+        scrollBar.resizeRelocate(left + width, top, barWidth, height);
+        
+        boolean density = isDensityView();
+        double pitchX = density ? densityCellSize(width, height) : cellWidth + gap;
+        double pitchY = density ? pitchX : cellHeight + gap;
+        double trailingGap = density ? 0 : gap;
+        int columns = Math.max(1, (int) ((width + trailingGap) / pitchX));
+        int rows = (slots.size() + columns - 1) / columns;
+        updateScrollBar(Math.max(0, rows * pitchY - trailingGap), height, pitchY);
+        
+        if (scrollToIndex >= 0 && !density) {
+            scrollBar.setValue(clamp((scrollToIndex / columns) * pitchY, 0, scrollBar.getMax()));
+            scrollToIndex = -1;
+        }
+        double offset = scrollBar.getValue();
+        int firstRow = (int) (offset / pitchY);
+        int lastRow = (int) ((offset + height) / pitchY);
+        int from = Math.min(slots.size(), firstRow * columns);
+        int to = Math.min(slots.size(), (lastRow + 1) * columns);
+        
+        densityCanvas.setVisible(density);
+        if (density) {
+            showRange(0, 0);
+            densityCanvas.relocate(left, top);
+            if (densityDirty || densityCanvas.getWidth() != width || densityCanvas.getHeight() != height
+                    || densityCell != pitchX || densityColumns != columns || densityOffset != offset) {
+                densityCanvas.setWidth(width);
+                densityCanvas.setHeight(height);
+                densityCell = pitchX;
+                densityColumns = columns;
+                densityOffset = offset;
+                paintDensity(from, to);
+            }
+            return;
+        }
+        
+        showRange(from, to);
+        for (int i = 0; i < shown.size(); i++) {
+            int index = from + i;
+            shown.get(i).resizeRelocate(left + (index % columns) * pitchX, top + (index / columns) * pitchY - offset,
+                    cellWidth, cellHeight);
+        }
+    }
+    
+    /**
+     * Make cards show exactly the slots from .. to - 1, reusing cards already showing one of them
+     */
+    private void showRange(int from, int to) {
+        int shownEnd = firstShown + shown.size();
+        for (int i = 0; i < shown.size(); i++) {
+            int index = firstShown + i;
+            if (index < from || index >= to) {
+                SlotCard card = shown.get(i);
+                card.setSlot(null);
+                card.setVisible(false);
+                spare.push(card);
+            }
+        }
+        
+        nextShown.clear();
+        for (int index = from; index < to; index++) {
+            SlotCard card;
+            if (index >= firstShown && index < shownEnd) {
+                card = shown.get(index - firstShown);
+            } else if (!spare.isEmpty()) {
+                card = spare.pop();
+                card.setSlot(slots.get(index));
+                card.setVisible(true);
+            } else {
+                card = new SlotCard(slots.get(index));
+                getChildren().add(getChildren().size() - 1, card); // below the scroll bar
+            }
+            nextShown.add(card);
+        }
+        
+        ArrayList<SlotCard> previous = shown;
+        shown = nextShown;
+        nextShown = previous;
+        firstShown = from;
+    }
+    
+    private void updateScrollBar(double contentHeight, double viewportHeight, double unit) {
+        double max = Math.max(0, contentHeight - viewportHeight);
+        scrollBar.setMax(max);
+        scrollBar.setVisibleAmount(contentHeight > 0 ? max * viewportHeight / contentHeight : 0);
+        scrollBar.setUnitIncrement(unit);
+        scrollBar.setBlockIncrement(viewportHeight);
+        scrollBar.setDisable(max == 0);
+        if (scrollBar.getValue() > max) {
+            scrollBar.setValue(max);
+        }
+    }
+    
+    /**
+     * Largest square per slot that fits the whole lot in view, within the density limits
+     */
+    private double densityCellSize(double width, double height) {
+        double cell = Math.floor(Math.sqrt(width * height / Math.max(1, slots.size())));
+        return clamp(cell, MIN_DENSITY_CELL, MAX_DENSITY_CELL);
+    }
+    
+    private void paintDensity(int from, int to) {
+        GraphicsContext graphics = densityCanvas.getGraphicsContext2D();
+        graphics.clearRect(0, 0, densityCanvas.getWidth(), densityCanvas.getHeight());
+        for (int index = from; index < to; index++) {
+            paintDensityCell(graphics, index);
+        }
+        densityDirty = false;
+    }
+    
+    private void repaintDensityCell(int index) {
+        if (!isDensityView() || densityDirty || densityColumns == 0) {
+            return; // a full paint is pending or the canvas is not showing
+        }
+        paintDensityCell(densityCanvas.getGraphicsContext2D(), index);
+    }
+    
+    private void paintDensityCell(GraphicsContext graphics, int index) {
+        double x = (index % densityColumns) * densityCell;
+        double y = (index / densityColumns) * densityCell - densityOffset;
+        if (y + densityCell <= 0 || y >= densityCanvas.getHeight()) {
+            return;
+        }
+        graphics.setFill(slots.get(index).isAvailable() ? AVAILABLE_COLOR : OCCUPIED_COLOR);
+        graphics.fillRect(x, y, densityCell - 1, densityCell - 1);
+    }
+    
+    private int densityIndexAt(double x, double y) {
+        if (densityColumns == 0 || densityCell == 0) {
+            return -1;
+        }
+        int column = (int) (x / densityCell);
+        int row = (int) ((y + densityOffset) / densityCell);
+        int index = row * densityColumns + column;
+        return column < densityColumns && index < slots.size() ? index : -1;
+    }
+    
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
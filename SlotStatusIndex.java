@@ -0,0 +1,97 @@
+import javafx.beans.value.ChangeListener;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Available and occupied slots as two live lists, e.g. as combo box items
+ * Every slot is in exactly one list. A status change moves it across in
+ * O(1): its place in the old list is filled with that list's last slot and
+ * the slot is appended to the other one, so neither list is rescanned or
+ * rebuilt. This leaves the lists unordered. The lists themselves are
+ * read-only; the slots' status properties drive them. FX thread only.
+ */
+public final class SlotStatusIndex {
+    private final ObservableList<ParkingSlot> available = FXCollections.observableArrayList();
+    private final ObservableList<ParkingSlot> occupied = FXCollections.observableArrayList();
+    private final ObservableList<ParkingSlot> availableView = FXCollections.unmodifiableObservableList(available);
+    private final ObservableList<ParkingSlot> occupiedView = FXCollections.unmodifiableObservableList(occupied);
+    
+    private final IdentityHashMap<ParkingSlot, Integer> positions = new IdentityHashMap<>(); // slot -> index in its list
+    private final ArrayList<ParkingSlot> observedSlots = new ArrayList<>(); // own copy: the caller may change its list
+    private final ArrayList<ChangeListener<String>> statusListeners = new ArrayList<>();
+    
+    /**
+     * Index these slots, replacing the ones indexed before
+     */
+    public void setSlots(List<ParkingSlot> slots) {
+        for (int i = 0; i < statusListeners.size(); i++) {
+            observedSlots.get(i).statusProperty().removeListener(statusListeners.get(i));
+        }
+        observedSlots.clear();
+        statusListeners.clear();
+        positions.clear();
+        
+        ArrayList<ParkingSlot> availableSlots = new ArrayList<>();
+        ArrayList<ParkingSlot> occupiedSlots = new ArrayList<>();
+        for (ParkingSlot slot : slots) {
+            ArrayList<ParkingSlot> list = slot.isAvailable() ? availableSlots : occupiedSlots;
+            positions.put(slot, list.size());
+            list.add(slot);
+            
+            ChangeListener<String> listener = (observable, oldStatus, newStatus) ->
+                    move(slot, listFor(oldStatus), listFor(newStatus));
+            slot.statusProperty().addListener(listener);
+            observedSlots.add(slot);
+            statusListeners.add(listener);
+        }
+        available.setAll(availableSlots);
+        occupied.setAll(occupiedSlots);
+    }
+    
+    /**
+     * Get the available slots, kept current
+     */
+    public ObservableList<ParkingSlot> getAvailable() {
+        return availableView;
+    }
+    
+    /**
+     * Get the occupied slots, kept current
+     */
+    public ObservableList<ParkingSlot> getOccupied() {
+        return occupiedView;
+    }
+    
+    public int getAvailableCount() {
+        return available.size();
+    }
+    
+    public int getOccupiedCount() {
+        return occupied.size();
+    }
+    
+    private ObservableList<ParkingSlot> listFor(String status) {
+        return "Available".equals(status) ? available : occupied;
+    }
+    
+    private void move(ParkingSlot slot, ObservableList<ParkingSlot> from, ObservableList<ParkingSlot> to) {
+        if (from == to) {
+            return;
+        }
+        int position = positions.get(slot);
+        int last = from.size() - 1;
+        if (position != last) {
+            ParkingSlot moved = from.get(last);
+            from.set(position, moved);
+            positions.put(moved, position);
+        }
+        from.remove(last);
+        
+        positions.put(slot, to.size());
+        to.add(slot);
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Strategy for handing out free parking spots
+ * Spot numbers are 1-based, matching the rest of the system
+ */
+public interface SpotAllocator {
+    
+    /**
+     * Get total number of spots managed
+     */
+    int getCapacity();
+    
+    /**
+     * Get number of spots currently free
+     */
+    int getFreeCount();
+    
+    /**
+     * Check if a spot is free (false for out-of-range spots)
+     */
+    boolean isFree(int spotNumber);
+    
+    /**
+     * Get the lowest free spot without claiming it, or -1 if none
+     */
+    int peekFree();
+    
+    /**
+     * Get the lowest taken spot at or after fromSpot, or -1 if none
+     */
+    int nextOccupied(int fromSpot);
+    
+    /**
+     * Claim the lowest free spot, or return -1 if none
+     */
+    int allocate();
+    
+    /**
+     * Claim a specific spot, returns false if taken or out of range
+     */
+    boolean claim(int spotNumber);
+    
+    /**
+     * Return a spot to the free pool, returns false if it was not taken
+     */
+    boolean release(int spotNumber);
+}
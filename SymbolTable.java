@@ -0,0 +1,184 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Interning table mapping strings to int ids, with reverse lookup
+ * Tenants and plates repeat across thousands of tickets, so the engine keeps
+ * one canonical String per distinct value and passes small ids around instead.
+ * Ids are never reused; they are only meaningful inside one running process,
+ * so files keep the text.
+ *
+ * Lookups and name resolution are lock-free. The table is split into 16
+ * stripes by hash, each with its own lock, index and names, so check-ins
+ * adding new plates on different threads rarely meet on the same lock. An id
+ * carries its stripe in the low bits. Within a stripe the hash index is
+ * published slot by slot (id first, then key) and replaced wholesale on
+ * resize, so readers never see a half-written entry. Locks are
+ * ReentrantLocks, so a virtual thread adding a symbol does not pin its carrier.
+ *
+ * Symbols are never dropped: tickets, the session archive and the log and
+ * database writers resolve ids on their own threads, so no point is safe to
+ * forget one. Only vehicles actually given a spot are interned.
+ */
+public class SymbolTable {
+    // Engine-wide tables shared by every lot, ticket and log
+    public static final SymbolTable TENANTS = new SymbolTable();
+    public static final SymbolTable PLATES = new SymbolTable();
+    
+    private static final int NOT_FOUND = -1;
+    private static final int MIN_CAPACITY = 16;
+    private static final int STRIPE_BITS = 4;
+    private static final int STRIPE_MASK = (1 << STRIPE_BITS) - 1;
+    
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+    
+    public SymbolTable() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(i);
+        }
+    }
+    
+    /**
+     * Get the id of a symbol, adding it if it has not been seen before
+     */
+    public int intern(String symbol) {
+        int h = hash(symbol);
+        Stripe stripe = stripes[h >>> (32 - STRIPE_BITS)];
+        int id = stripe.find(symbol, h);
+        return id != NOT_FOUND ? id : stripe.add(symbol, h);
+    }
+    
+    /**
+     * Get the id of a symbol without adding it, or -1 if it has never been interned
+     */
+    public int find(String symbol) {
+        int h = hash(symbol);
+        return stripes[h >>> (32 - STRIPE_BITS)].find(symbol, h);
+    }
+    
+    /**
+     * Get the symbol for an id, or null if no such id was handed out
+     */
+    public String name(int id) {
+        if (id < 0) {
+            return null;
+        }
+        String[] current = stripes[id & STRIPE_MASK].names;
+        int local = id >>> STRIPE_BITS;
+        return local < current.length ? current[local] : null;
+    }
+    
+    /**
+     * Get number of distinct symbols currently held
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.live;
+        }
+        return size;
+    }
+    
+    private static int hash(String symbol) {
+        int h = symbol.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * One hash stripe: ids stripe + (local id << STRIPE_BITS), local ids from 0 in first-seen order
+     */
+    private static final class Stripe {
+        final int number;
+        final ReentrantLock lock = new ReentrantLock();
+        volatile Index index;    // symbol -> id
+        volatile String[] names; // local id -> symbol
+        volatile int live;       // symbols in the index, written under lock
+        int next;                // guarded by lock
+        
+        Stripe(int number) {
+            this.number = number;
+            this.index = new Index(MIN_CAPACITY);
+            this.names = new String[MIN_CAPACITY];
+        }
+        
+        int find(String symbol, int h) {
+            Index current = index;
+            int slot = h & current.mask;
+            String key;
+            while ((key = current.keys.get(slot)) != null) {
+                if (key.equals(symbol)) {
+                    return current.ids[slot];
+                }
+                slot = (slot + 1) & current.mask;
+            }
+            return NOT_FOUND;
+        }
+        
+        int add(String symbol, int h) {
+            lock.lock();
+            try {
+                // Another thread may have added it between the lock-free miss and here
+                int id = find(symbol, h);
+                if (id != NOT_FOUND) {
+                    return id;
+                }
+                
+                int local = next++;
+                id = (local << STRIPE_BITS) | number;
+                String[] current = names;
+                if (local == current.length) {
+                    current = Arrays.copyOf(current, current.length << 1);
+                }
+                current[local] = symbol;
+                names = current; // publish the name before the id can be found
+                
+                Index target = index;
+                if (live + 1 > target.resizeAt) {
+                    rebuild(current, target.keys.length() << 1);
+                } else {
+                    target.insert(symbol, h, id);
+                }
+                live++;
+                return id;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        // Caller holds lock
+        private void rebuild(String[] current, int capacity) {
+            Index grown = new Index(capacity);
+            for (int local = 0; local < next; local++) {
+                grown.insert(current[local], hash(current[local]), (local << STRIPE_BITS) | number);
+            }
+            index = grown;
+        }
+    }
+    
+    /**
+     * Open-addressing hash index (linear probing, no deletes)
+     */
+    private static final class Index {
+        final AtomicReferenceArray<String> keys;
+        final int[] ids;
+        final int mask;
+        final int resizeAt;
+        
+        Index(int capacity) {
+            this.keys = new AtomicReferenceArray<>(capacity);
+            this.ids = new int[capacity];
+            this.mask = capacity - 1;
+            this.resizeAt = capacity * 3 / 4;
+        }
+        
+        void insert(String symbol, int h, int id) {
+            int slot = h & mask;
+            while (keys.get(slot) != null) {
+                slot = (slot + 1) & mask;
+            }
+            ids[slot] = id;
+            keys.set(slot, symbol); // volatile write publishes the id with the key
+        }
+    }
+}
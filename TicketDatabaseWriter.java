@@ -0,0 +1,426 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind persistence of tickets to a SQL database (H2)
+ * The lot acknowledges check-ins and check-outs as soon as the journal has
+ * them; this journal follower only queues the new ticket state. One writer thread
+ * drains the queue and stores everything pending as one JDBC batch and one
+ * transaction, so under load a flush covers many requests. The queue is
+ * bounded and onRecord never waits: when it is full (e.g. the database is
+ * down), the change is dropped and counted, and once the queue has drained
+ * the writer catches up by replaying the journal, which compaction keeps
+ * for it. So an outage never stalls check-ins or check-outs.
+ *
+ * Every flush also stores the journal sequence it covers. After a crash,
+ * open() replays the journal from that point, and journal compaction keeps
+ * the records after it; reading the stored sequence never waits for the
+ * database, so a slow one keeps the journal longer, not requests waiting.
+ * Rows are upserted by (spot, check-in time, plate), so replaying a change
+ * twice is harmless.
+ */
+public class TicketDatabaseWriter implements ParkingJournal.Follower, Closeable {
+    // System property with the JDBC URL, e.g. -Dspot.db.url=jdbc:h2:./spot
+    public static final String URL_PROPERTY = "spot.db.url";
+    
+    public static final int DEFAULT_CAPACITY = 16_384;
+    public static final int DEFAULT_MAX_BATCH = 1_000;
+    
+    private static final long RETRY_MILLIS = 1_000;
+    
+    private static final String CREATE_TICKETS =
+            "CREATE TABLE IF NOT EXISTS parking_ticket ("
+            + "spot_number INT NOT NULL, check_in_millis BIGINT NOT NULL, "
+            + "tenant_name VARCHAR(255) NOT NULL, vehicle_plate VARCHAR(64) NOT NULL, "
+            + "check_out_millis BIGINT, active BOOLEAN NOT NULL, "
+            + "PRIMARY KEY (spot_number, check_in_millis, vehicle_plate))";
+    private static final String CREATE_SYNC =
+            "CREATE TABLE IF NOT EXISTS parking_sync (id INT PRIMARY KEY, journal_sequence BIGINT NOT NULL)";
+    private static final String UPSERT_TICKET =
+            "MERGE INTO parking_ticket (spot_number, check_in_millis, tenant_name, vehicle_plate, "
+            + "check_out_millis, active) KEY (spot_number, check_in_millis, vehicle_plate) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String CLOSE_SPOT =
+            "UPDATE parking_ticket SET check_out_millis = ?, active = FALSE WHERE spot_number = ? AND active";
+    private static final String CLOSE_ALL =
+            "UPDATE parking_ticket SET active = FALSE WHERE active";
+    private static final String SELECT_SEQUENCE =
+            "SELECT journal_sequence FROM parking_sync WHERE id = 1";
+    private static final String SAVE_SEQUENCE =
+            "MERGE INTO parking_sync (id, journal_sequence) KEY (id) VALUES (1, ?)";
+    
+    private final Connection connection;
+    private final File snapshotFile;
+    private final File journalFile;
+    private final ArrayBlockingQueue<Change> queue;
+    private final int maxBatch;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    private volatile boolean failing;  // last flush failed; the database may be down
+    private volatile boolean behind;   // changes were dropped; catch up from the journal
+    
+    // Journal sequence stored so far; written by the writer thread only
+    private volatile long persistedSequence;
+    
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong catchUpCount = new AtomicLong();
+    
+    private TicketDatabaseWriter(Connection connection, File snapshotFile, File journalFile,
+                                 int capacity, int maxBatch, long persistedSequence) {
+        this.connection = connection;
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.persistedSequence = persistedSequence;
+        
+        this.writerThread = new Thread(this::writeLoop, "spot-ticket-db");
+        this.writerThread.setDaemon(true);
+    }
+    
+    /**
+     * Bring the database up to date from the journal files, then persist every new journal record
+     * Call right after ParkingJournal.open on the same files, before new check-ins.
+     */
+    public static TicketDatabaseWriter open(Connection connection, ParkingJournal journal,
+                                            File snapshotFile, File journalFile,
+                                            int capacity, int maxBatch) throws SQLException, IOException {
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TICKETS);
+            statement.execute(CREATE_SYNC);
+        }
+        connection.commit();
+        
+        long persisted = replaySince(connection, snapshotFile, journalFile, readStoredSequence(connection));
+        TicketDatabaseWriter writer = new TicketDatabaseWriter(connection, snapshotFile, journalFile,
+                capacity, maxBatch, persisted);
+        writer.writerThread.start();
+        journal.setFollower(writer);
+        return writer;
+    }
+    
+    /**
+     * Queue the ticket's new state, never waiting: runs under the journal and engine locks
+     * A full queue drops the change; the writer reads it back from the journal later.
+     */
+    @Override
+    public void onRecord(long sequence, ParkingTicket ticket) {
+        if (!queue.offer(new Change(sequence, ticket))) {
+            behind = true;
+            droppedCount.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Get number of changes stored in the database
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+    
+    /**
+     * Get number of committed flushes (JDBC batches)
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+    
+    /**
+     * Get number of flushes that failed and were retried
+     */
+    public long getFailedFlushCount() {
+        return failedFlushCount.get();
+    }
+    
+    /**
+     * Get number of changes dropped from a full queue (stored later from the journal)
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+    
+    /**
+     * Get number of times the writer caught up from the journal after dropping changes
+     */
+    public long getCatchUpCount() {
+        return catchUpCount.get();
+    }
+    
+    /**
+     * Get number of changes acknowledged but not yet stored
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+    
+    /**
+     * Get the journal sequence the database is up to date with; the journal keeps the records after it
+     */
+    @Override
+    public long getStoredSequence() {
+        return persistedSequence;
+    }
+    
+    /**
+     * Check if the last flush failed (the database may be down; flushes are being retried)
+     */
+    public boolean isFailing() {
+        return failing;
+    }
+    
+    /**
+     * Store everything still queued and close the connection
+     * Close it before the journal, so the journal's final compaction is covered.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException("Error closing ticket database", e);
+        }
+    }
+    
+    /**
+     * Writer thread: store whatever is queued as one batch, retrying a failed batch until it succeeds
+     * Journal sequences are consecutive, so a queued change that does not
+     * follow the persisted sequence means changes in between were dropped.
+     * The writer stores the run before the gap, reads the journal from there,
+     * and then skips queued changes the journal already covered.
+     */
+    private void writeLoop() {
+        ArrayList<Change> batch = new ArrayList<>(maxBatch);
+        try (PreparedStatement upsert = connection.prepareStatement(UPSERT_TICKET);
+             PreparedStatement saveSequence = connection.prepareStatement(SAVE_SEQUENCE)) {
+            while (running || behind || !queue.isEmpty() || !batch.isEmpty()) {
+                if (batch.isEmpty() && !behind) {
+                    Change first = queue.poll(50, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                } else if (batch.isEmpty()) {
+                    queue.drainTo(batch, maxBatch);
+                }
+                
+                try {
+                    int stale = 0;
+                    while (stale < batch.size() && batch.get(stale).sequence <= persistedSequence) {
+                        stale++;
+                    }
+                    batch.subList(0, stale).clear();
+                    int run = 0;
+                    while (run < batch.size() && batch.get(run).sequence == persistedSequence + 1 + run) {
+                        run++;
+                    }
+                    if (run > 0) {
+                        List<Change> stored = batch.subList(0, run);
+                        flush(stored, upsert, saveSequence);
+                        stored.clear();
+                    }
+                    if (behind || !batch.isEmpty()) {
+                        catchUp(); // changes were dropped before the rest of the batch or after it
+                    }
+                    failing = false;
+                } catch (SQLException | IOException e) {
+                    failing = true;
+                    failedFlushCount.incrementAndGet();
+                    System.err.println("Error writing tickets to database: " + e.getMessage());
+                    rollbackQuietly();
+                    if (!running) {
+                        break; // replayed from the journal on the next start
+                    }
+                    Thread.sleep(RETRY_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SQLException e) {
+            System.err.println("Error preparing ticket database statements: " + e.getMessage());
+        } finally {
+            running = false;
+        }
+    }
+    
+    /**
+     * Store what the journal has beyond the persisted sequence, after changes were dropped
+     * The journal writes a record before handing it over, so every change
+     * dropped before the flag is cleared is in the file read below.
+     */
+    private void catchUp() throws SQLException, IOException {
+        behind = false; // a change dropped from here on sets it again
+        try {
+            persistedSequence = replaySince(connection, snapshotFile, journalFile, persistedSequence);
+        } catch (SQLException | IOException e) {
+            behind = true;
+            throw e;
+        }
+        catchUpCount.incrementAndGet();
+    }
+    
+    private void flush(List<Change> batch, PreparedStatement upsert, PreparedStatement saveSequence)
+            throws SQLException {
+        for (Change change : batch) {
+            upsert.setInt(1, change.spotNumber);
+            upsert.setLong(2, change.checkInMillis);
+            upsert.setString(3, SymbolTable.TENANTS.name(change.tenantId));
+            upsert.setString(4, SymbolTable.PLATES.name(change.plateId));
+            if (change.checkOutMillis == 0) {
+                upsert.setNull(5, Types.BIGINT);
+            } else {
+                upsert.setLong(5, change.checkOutMillis);
+            }
+            upsert.setBoolean(6, change.checkOutMillis == 0);
+            upsert.addBatch();
+        }
+        upsert.executeBatch();
+        
+        long sequence = batch.get(batch.size() - 1).sequence;
+        saveSequence.setLong(1, sequence);
+        saveSequence.executeUpdate();
+        connection.commit();
+        
+        writtenCount.addAndGet(batch.size());
+        flushCount.incrementAndGet();
+        persistedSequence = sequence;
+    }
+    
+    private void rollbackQuietly() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            System.err.println("Error rolling back ticket database: " + e.getMessage());
+        }
+    }
+    
+    private static long readStoredSequence(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(SELECT_SEQUENCE)) {
+            return result.next() ? result.getLong(1) : 0;
+        }
+    }
+    
+    /**
+     * Apply journal history after the stored sequence, in one transaction; returns the sequence reached
+     */
+    private static long replaySince(Connection connection, File snapshotFile, File journalFile, long stored)
+            throws SQLException, IOException {
+        long[] reached = {stored};
+        SQLException[] failure = {null};
+        try (PreparedStatement upsert = connection.prepareStatement(UPSERT_TICKET);
+             PreparedStatement closeSpot = connection.prepareStatement(CLOSE_SPOT);
+             PreparedStatement saveSequence = connection.prepareStatement(SAVE_SEQUENCE)) {
+            ParkingJournal.readSince(snapshotFile, journalFile, stored, new ParkingJournal.RecordVisitor() {
+                @Override
+                public void onSnapshot(long sequence, ArrayList<ParkingTicket> activeTickets) {
+                    run(() -> {
+                        // Stays that ended while the database was behind the snapshot: the end time is lost
+                        try (Statement statement = connection.createStatement()) {
+                            statement.executeUpdate(CLOSE_ALL);
+                        }
+                        for (ParkingTicket ticket : activeTickets) {
+                            upsert(upsert, ticket);
+                        }
+                    }, sequence);
+                }
+                
+                @Override
+                public void onCheckIn(long sequence, ParkingTicket ticket) {
+                    run(() -> upsert(upsert, ticket), sequence);
+                }
+                
+                @Override
+                public void onCheckOut(long sequence, int spotNumber, long checkOutMillis) {
+                    run(() -> {
+                        closeSpot.setLong(1, checkOutMillis);
+                        closeSpot.setInt(2, spotNumber);
+                        closeSpot.executeUpdate();
+                    }, sequence);
+                }
+                
+                private void run(SqlAction action, long sequence) {
+                    if (failure[0] != null) {
+                        return;
+                    }
+                    try {
+                        action.run();
+                        reached[0] = sequence;
+                    } catch (SQLException e) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            
+            saveSequence.setLong(1, reached[0]);
+            saveSequence.executeUpdate();
+            connection.commit();
+        } catch (SQLException | IOException e) {
+            connection.rollback();
+            throw e;
+        }
+        return reached[0];
+    }
+    
+    private static void upsert(PreparedStatement upsert, ParkingTicket ticket) throws SQLException {
+        upsert.setInt(1, ticket.getSpotNumber());
+        upsert.setLong(2, ticket.getCheckInMillis());
+        upsert.setString(3, ticket.getTenantName());
+        upsert.setString(4, ticket.getVehiclePlate());
+        upsert.setNull(5, Types.BIGINT);
+        upsert.setBoolean(6, true);
+        upsert.executeUpdate();
+    }
+    
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+    
+    /**
+     * Ticket state after one change, captured on the producer thread
+     */
+    private static class Change {
+        final long sequence; // journal record of this change
+        final int spotNumber;
+        final long checkInMillis;
+        final long checkOutMillis; // 0 while parked
+        final int tenantId;
+        final int plateId;
+        
+        Change(long sequence, ParkingTicket ticket) {
+            this.sequence = sequence;
+            this.spotNumber = ticket.getSpotNumber();
+            this.checkInMillis = ticket.getCheckInMillis();
+            this.checkOutMillis = ticket.getCheckOutMillis();
+            this.tenantId = ticket.getTenantId();
+            this.plateId = ticket.getPlateId();
+        }
+    }
+}
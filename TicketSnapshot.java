@@ -0,0 +1,253 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-width snapshot of active parking tickets
+ * Loading maps the file read-only and walks the mapping directly: no copy
+ * into the heap, no stream decoding, no intermediate ticket list, and each
+ * distinct tenant or plate string is decoded once. Writing fills one buffer
+ * and renames it over the old file. The mapping is dropped when load
+ * returns, but Java only unmaps it once collected, and Windows refuses to
+ * replace a mapped file until then, so the rename is retried briefly; the
+ * old snapshot is never overwritten in place. A snapshot whose counts, ids
+ * or offsets do not fit its size is rejected with an IOException.
+ *
+ * Header (32 bytes):  int magic, int version, long lastSequence,
+ *                     int ticketCount, int totalSpots, int stringCount, int reserved
+ * Ticket (32 bytes):  int spot, int flags, long checkInMillis, long checkOutMillis,
+ *                     int tenantId, int plateId
+ * String table:       int[stringCount] offsets (from table start), then
+ *                     per string: int byteLength, utf-8 bytes
+ */
+public class TicketSnapshot {
+    public static final int HEADER_BYTES = 32;
+    public static final int RECORD_BYTES = 32;
+    
+    private static final int MAGIC = 0x53505453; // "SPTS"
+    private static final int VERSION = 1;
+    private static final int FLAG_ACTIVE = 1;
+    private static final int REPLACE_ATTEMPTS = 10;
+    private static final long REPLACE_RETRY_MILLIS = 50;
+    
+    private final long lastSequence;
+    private final int totalSpots;
+    private final int ticketCount;
+    
+    private TicketSnapshot(long lastSequence, int totalSpots, int ticketCount) {
+        this.lastSequence = lastSequence;
+        this.totalSpots = totalSpots;
+        this.ticketCount = ticketCount;
+    }
+    
+    /**
+     * Get journal sequence number folded into this snapshot
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+    
+    /**
+     * Get lot capacity when the snapshot was written
+     */
+    public int getTotalSpots() {
+        return totalSpots;
+    }
+    
+    /**
+     * Get number of tickets in the snapshot
+     */
+    public int getTicketCount() {
+        return ticketCount;
+    }
+    
+    /**
+     * Write tickets to a snapshot file, replacing it atomically
+     */
+    public static void write(File file, ArrayList<ParkingTicket> tickets, int totalSpots, long lastSequence) throws IOException {
+        // Intern tenants and plates so every distinct string is stored once
+        HashMap<String, Integer> ids = new HashMap<>();
+        ArrayList<byte[]> strings = new ArrayList<>();
+        int[] tenantIds = new int[tickets.size()];
+        int[] plateIds = new int[tickets.size()];
+        long stringBytes = 0;
+        
+        for (int i = 0; i < tickets.size(); i++) {
+            ParkingTicket ticket = tickets.get(i);
+            for (int pass = 0; pass < 2; pass++) {
+                String value = pass == 0 ? ticket.getTenantName() : ticket.getVehiclePlate();
+                Integer id = ids.get(value);
+                if (id == null) {
+                    id = strings.size();
+                    ids.put(value, id);
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    strings.add(bytes);
+                    stringBytes += 4 + 4 + bytes.length;
+                }
+                if (pass == 0) {
+                    tenantIds[i] = id;
+                } else {
+                    plateIds[i] = id;
+                }
+            }
+        }
+        
+        long size = HEADER_BYTES + (long) tickets.size() * RECORD_BYTES + stringBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot too large to buffer: " + size + " bytes");
+        }
+        
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(lastSequence)
+               .putInt(tickets.size()).putInt(totalSpots).putInt(strings.size()).putInt(0);
+            
+            for (int i = 0; i < tickets.size(); i++) {
+                ParkingTicket ticket = tickets.get(i);
+                buffer.putInt(ticket.getSpotNumber());
+                buffer.putInt(ticket.isActive() ? FLAG_ACTIVE : 0);
+                buffer.putLong(ticket.getCheckInMillis());
+                buffer.putLong(ticket.getCheckOutMillis());
+                buffer.putInt(tenantIds[i]);
+                buffer.putInt(plateIds[i]);
+            }
+            
+            int tableStart = buffer.position();
+            int offset = strings.size() * 4;
+            for (byte[] bytes : strings) {
+                buffer.putInt(offset);
+                offset += 4 + bytes.length;
+            }
+            for (byte[] bytes : strings) {
+                buffer.putInt(bytes.length).put(bytes);
+            }
+            if (buffer.position() - tableStart != stringBytes) {
+                throw new IOException("Snapshot string table size mismatch");
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        
+        replace(temp.toPath(), file.toPath());
+    }
+    
+    /**
+     * Rename the new snapshot over the old one, retrying while Windows reports the old file in use
+     * If it stays in use, the new file is deleted and the old snapshot kept.
+     */
+    private static void replace(Path temp, Path target) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return;
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                return;
+            } catch (FileSystemException e) {
+                // Sharing violations come as a plain FileSystemException or AccessDeniedException
+                boolean inUse = e.getClass() == FileSystemException.class || e instanceof AccessDeniedException;
+                if (!inUse || attempt == REPLACE_ATTEMPTS) {
+                    Files.deleteIfExists(temp);
+                    throw e;
+                }
+            }
+            System.gc(); // lets an unreachable mapping from load be unmapped
+            try {
+                Thread.sleep(REPLACE_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Files.deleteIfExists(temp);
+                throw new IOException("Interrupted replacing snapshot " + target, e);
+            }
+        }
+    }
+    
+    /**
+     * Read a snapshot and hand each ticket to the sink, in file (spot) order
+     * The read-only mapping is only referenced inside this call.
+     */
+    public static TicketSnapshot load(File file, Consumer<ParkingTicket> sink) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a ticket snapshot: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a ticket snapshot: " + file);
+        }
+        
+        long lastSequence = buffer.getLong(8);
+        int count = buffer.getInt(16);
+        int totalSpots = buffer.getInt(20);
+        int stringCount = buffer.getInt(24);
+        long tableStart = HEADER_BYTES + (long) count * RECORD_BYTES;
+        if (count < 0 || stringCount < 0 || tableStart + stringCount * 4L > buffer.capacity()) {
+            throw new IOException("Truncated ticket snapshot: " + file);
+        }
+        
+        String[] decoded = new String[stringCount];
+        for (int i = 0; i < count; i++) {
+            int base = HEADER_BYTES + i * RECORD_BYTES;
+            int spot = buffer.getInt(base);
+            long checkIn = buffer.getLong(base + 8);
+            String tenant = string(buffer, (int) tableStart, buffer.getInt(base + 24), decoded);
+            String plate = string(buffer, (int) tableStart, buffer.getInt(base + 28), decoded);
+            if (tenant == null || plate == null) {
+                throw new IOException("Corrupt ticket snapshot: " + file + " (ticket " + i + ")");
+            }
+            sink.accept(new ParkingTicket(tenant, plate, spot, checkIn));
+        }
+        return new TicketSnapshot(lastSequence, totalSpots, count);
+    }
+    
+    /**
+     * Decode a string table entry once, then reuse it; null if the id or entry lies outside the table
+     */
+    private static String string(ByteBuffer buffer, int tableStart, int id, String[] decoded) {
+        if (id < 0 || id >= decoded.length) {
+            return null;
+        }
+        String value = decoded[id];
+        if (value == null) {
+            long position = tableStart + (long) buffer.getInt(tableStart + id * 4);
+            if (position < tableStart + decoded.length * 4L || position + 4 > buffer.capacity()) {
+                return null;
+            }
+            int length = buffer.getInt((int) position);
+            if (length < 0 || position + 4 + length > buffer.capacity()) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get((int) position + 4, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decoded[id] = value;
+        }
+        return value;
+    }
+}
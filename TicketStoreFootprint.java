@@ -0,0 +1,58 @@
+import java.util.HashMap;
+
+/**
+ * Footprint check for the ticket store
+ * Compares heap bytes per parked vehicle spent on indexing between the old
+ * boxed HashMap layout and the spot array + PlateIndex used by ParkingLot.
+ * Run with e.g. java -Xmx2g TicketStoreFootprint [tickets]
+ */
+public class TicketStoreFootprint {
+    private static final int DEFAULT_TICKETS = 1_000_000;
+    
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TICKETS;
+        
+        // Tickets and plates are shared by both layouts, so build them first
+        ParkingTicket[] tickets = new ParkingTicket[count];
+        for (int i = 0; i < count; i++) {
+            tickets[i] = new ParkingTicket("Tenant " + (i % 1000), "PLT-" + i, i + 1);
+        }
+        
+        long before = usedHeap();
+        HashMap<Integer, ParkingTicket> bySpot = new HashMap<>();
+        HashMap<String, Integer> byPlate = new HashMap<>();
+        for (ParkingTicket ticket : tickets) {
+            bySpot.put(ticket.getSpotNumber(), ticket);
+            byPlate.put(ticket.getVehiclePlate(), ticket.getSpotNumber());
+        }
+        long boxedBytes = usedHeap() - before;
+        
+        before = usedHeap();
+        ParkingTicket[] spotArray = new ParkingTicket[count];
+        PlateIndex plateIndex = new PlateIndex();
+        for (ParkingTicket ticket : tickets) {
+            spotArray[ticket.getSpotNumber() - 1] = ticket;
+            plateIndex.put(ticket.getPlateId(), ticket.getSpotNumber());
+        }
+        long flatBytes = usedHeap() - before;
+        
+        System.out.println("Parked vehicles:            " + count);
+        System.out.printf("HashMap layout (before):    %,d bytes (%.1f bytes/vehicle)%n",
+                boxedBytes, boxedBytes / (double) count);
+        System.out.printf("Array + PlateIndex (after): %,d bytes (%.1f bytes/vehicle)%n",
+                flatBytes, flatBytes / (double) count);
+        
+        // Keep every structure reachable until both measurements are done
+        if (bySpot.size() + byPlate.size() + spotArray.length + plateIndex.size() == 0) {
+            System.out.println(tickets.length);
+        }
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,45 @@
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Shared timestamp helpers for tickets, slots and logs
+ * Times are kept as epoch milliseconds (0 = not set) and only turned into
+ * text for display. DateTimeFormatter is immutable and thread-safe, so one
+ * instance serves every caller instead of a new pattern per call.
+ */
+public final class TimeFormat {
+    public static final DateTimeFormatter DISPLAY = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    private TimeFormat() {
+    }
+    
+    /**
+     * Format epoch milliseconds as yyyy-MM-dd HH:mm:ss in the system time zone
+     */
+    public static String format(long epochMillis) {
+        return DISPLAY.format(Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()));
+    }
+    
+    /**
+     * Append epoch milliseconds as yyyy-MM-dd HH:mm:ss, without an intermediate string
+     */
+    public static void formatTo(long epochMillis, StringBuilder out) {
+        DISPLAY.formatTo(Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()), out);
+    }
+    
+    /**
+     * Convert a local date-time to epoch milliseconds (null -> 0)
+     */
+    public static long toEpochMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    /**
+     * Convert epoch milliseconds to a local date-time (0 -> null)
+     */
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        return epochMillis == 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
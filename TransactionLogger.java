@@ -0,0 +1,216 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous, group-committing transaction logger
+ * Producers drop small event records into a bounded ring buffer and return.
+ * One writer thread drains the buffer in batches, formats them into a large
+ * buffered write and syncs to disk according to the sync interval:
+ * below 0 never, 0 after every batch, otherwise at most once per interval.
+ * When the buffer is full, events are either dropped or the producer waits
+ * (backpressure); both cases are counted.
+ */
+public class TransactionLogger implements Closeable {
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+    
+    private final ArrayBlockingQueue<Event> ring;
+    private final int maxBatch;
+    private final long syncIntervalMillis;
+    private final boolean blockWhenFull;
+    
+    private final FileOutputStream fileStream;
+    private final BufferedWriter writer;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong backpressuredCount = new AtomicLong();
+    private long lastSyncMillis;
+    
+    /**
+     * Open a logger appending to the given file and start its writer thread
+     */
+    public TransactionLogger(File logFile, int capacity, int maxBatch,
+                             long syncIntervalMillis, boolean blockWhenFull) throws IOException {
+        this.ring = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.blockWhenFull = blockWhenFull;
+        this.fileStream = new FileOutputStream(logFile, true);
+        this.writer = new BufferedWriter(new OutputStreamWriter(fileStream, StandardCharsets.UTF_8), WRITE_BUFFER_BYTES);
+        
+        this.writerThread = new Thread(this::writeLoop, "spot-transaction-log");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+    
+    /**
+     * Queue a ticket event, returns false if it was dropped
+     */
+    public boolean log(ParkingTicket ticket, String action) {
+        Event event = new Event(System.currentTimeMillis(), action, ticket.getTenantId(),
+                ticket.getPlateId(), ticket.getSpotNumber(), ticket.getCheckInMillis());
+        
+        if (!running) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        if (ring.offer(event)) {
+            return true;
+        }
+        if (!blockWhenFull) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        
+        // Buffer is full, wait for the writer to make room
+        backpressuredCount.incrementAndGet();
+        try {
+            while (running) {
+                if (ring.offer(event, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedCount.incrementAndGet();
+        return false;
+    }
+    
+    /**
+     * Get number of events written to the file
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+    
+    /**
+     * Get number of events lost because the buffer was full or the logger closed
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+    
+    /**
+     * Get number of events whose producer had to wait for buffer space
+     */
+    public long getBackpressuredCount() {
+        return backpressuredCount.get();
+    }
+    
+    /**
+     * Stop accepting events, write everything still buffered, sync and close the file
+     */
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        // Anything that slipped in after the final drain is lost
+        droppedCount.addAndGet(ring.size());
+        ring.clear();
+    }
+    
+    /**
+     * Writer thread: wait for events, then commit them a batch at a time
+     */
+    private void writeLoop() {
+        ArrayList<Event> batch = new ArrayList<>(maxBatch);
+        StringBuilder line = new StringBuilder(160);
+        
+        try {
+            while (running || !ring.isEmpty()) {
+                Event first = ring.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                ring.drainTo(batch, maxBatch - 1);
+                writeBatch(batch, line);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Error logging transaction: " + e.getMessage());
+        } finally {
+            running = false; // release any producer waiting for space
+            try {
+                writer.flush();
+                fileStream.getFD().sync();
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("Error closing transaction log: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void writeBatch(ArrayList<Event> batch, StringBuilder line) throws IOException {
+        for (Event event : batch) {
+            line.setLength(0);
+            event.appendTo(line);
+            writer.append(line);
+        }
+        writer.flush();
+        writtenCount.addAndGet(batch.size());
+        
+        long now = System.currentTimeMillis();
+        if (syncIntervalMillis == 0 || (syncIntervalMillis > 0 && now - lastSyncMillis >= syncIntervalMillis)) {
+            fileStream.getFD().sync();
+            lastSyncMillis = now;
+        }
+    }
+    
+    /**
+     * One logged transaction, captured on the producer thread
+     */
+    private static class Event {
+        final long timestampMillis;
+        final String action;
+        final int tenantId; // names are resolved on the writer thread
+        final int plateId;
+        final int spotNumber;
+        final long checkInMillis;
+        
+        Event(long timestampMillis, String action, int tenantId, int plateId,
+              int spotNumber, long checkInMillis) {
+            this.timestampMillis = timestampMillis;
+            this.action = action;
+            this.tenantId = tenantId;
+            this.plateId = plateId;
+            this.spotNumber = spotNumber;
+            this.checkInMillis = checkInMillis;
+        }
+        
+        /**
+         * Format as the classic transaction log line
+         */
+        void appendTo(StringBuilder out) {
+            out.append('[')
+               .append(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault()))
+               .append("] Action: ").append(action)
+               .append(" | Tenant: ").append(SymbolTable.TENANTS.name(tenantId))
+               .append(" | Plate: ").append(SymbolTable.PLATES.name(plateId))
+               .append(" | Spot: ").append(spotNumber)
+               .append(" | Check-in: ");
+            TimeFormat.formatTo(checkInMillis, out);
+            out.append(System.lineSeparator());
+        }
+    }
+}
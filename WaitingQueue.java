@@ -0,0 +1,196 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer/multi-consumer FIFO queue
+ * Array ring with one sequence number per slot (Vyukov's bounded MPMC design):
+ * producers claim a slot with a CAS on the tail, consumers with a CAS on the head,
+ * and the slot's sequence tells each side whether the slot is ready for it.
+ * Nothing is allocated per entry, and a full queue rejects the offer instead of growing.
+ *
+ * Slot sequence for position p (slot p & mask):
+ * - p             slot is empty, a producer may write position p
+ * - p + 1         slot holds the element for position p, a consumer may take it
+ * - p + capacity  element taken, the slot is free for the next lap
+ */
+public class WaitingQueue<T> implements Iterable<T> {
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong(); // next position to take
+    private final AtomicLong tail = new AtomicLong(); // next position to fill
+    
+    /**
+     * Create a queue holding at least the given number of entries (rounded up to a power of two, minimum 2)
+     */
+    public WaitingQueue(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        
+        // A single slot cannot tell "published" (p + 1) from "empty for the next position" (p + 1)
+        this.capacity = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.elements = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    /**
+     * Add element to the back of the queue, returns false if the queue is full
+     */
+    public boolean offer(T element) {
+        if (element == null) {
+            throw new NullPointerException("Queue elements cannot be null");
+        }
+        
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(slot, element);
+                    sequences.set(slot, position + 1); // publish to consumers
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false; // slot still holds an element from the previous lap
+            }
+            // Otherwise another producer claimed this position, retry with the new tail
+        }
+    }
+    
+    /**
+     * Remove and return the front element, or null if the queue is empty
+     */
+    public T poll() {
+        while (true) {
+            long position = head.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - (position + 1);
+            
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T element = elements.get(slot);
+                    elements.set(slot, null);
+                    sequences.set(slot, position + capacity); // hand the slot to the next lap
+                    return element;
+                }
+            } else if (difference < 0) {
+                return null; // nothing published at the head yet
+            }
+            // Otherwise another consumer took this position, retry with the new head
+        }
+    }
+    
+    /**
+     * View the front element without removing it, or null if the queue is empty
+     */
+    public T peek() {
+        while (true) {
+            long position = head.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - (position + 1);
+            
+            if (difference < 0) {
+                return null;
+            }
+            if (difference == 0) {
+                T element = elements.get(slot);
+                // Only trust the read if no consumer took the slot in the meantime
+                if (element != null && head.get() == position) {
+                    return element;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Get number of queued entries (approximate while other threads are active)
+     */
+    public int size() {
+        while (true) {
+            long before = head.get();
+            long end = tail.get();
+            if (head.get() == before) {
+                return (int) Math.max(0, Math.min(capacity, end - before));
+            }
+        }
+    }
+    
+    /**
+     * Check if queue is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+    
+    /**
+     * Get maximum number of entries
+     */
+    public int capacity() {
+        return capacity;
+    }
+    
+    /**
+     * Iterate the queued entries front to back without copying or locking
+     * The iterator covers the positions queued when it was created. Entries
+     * taken by a consumer before they are reached are skipped; entries added
+     * afterwards are not seen.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new SnapshotIterator(head.get(), tail.get());
+    }
+    
+    private class SnapshotIterator implements Iterator<T> {
+        private final long end;
+        private long position;
+        private T next;
+        
+        SnapshotIterator(long start, long end) {
+            this.position = start;
+            this.end = end;
+            advance();
+        }
+        
+        private void advance() {
+            next = null;
+            while (next == null && position < end) {
+                int slot = (int) position & mask;
+                long published = position + 1;
+                if (sequences.get(slot) == published) {
+                    T element = elements.get(slot);
+                    // The sequence only moves forward, so an unchanged value means the element is still queued
+                    if (sequences.get(slot) == published) {
+                        next = element;
+                    }
+                }
+                position++;
+            }
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+        
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            T element = next;
+            advance();
+            return element;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package spot.benchmarks;
+
+import spot.LogLinearHistogram;
+import spot.ParkingApiServer;
+import spot.ParkingLot;
+
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load comparison of the web service on virtual threads against a platform thread pool
+ * For each mode an in-process ParkingApiServer is started and a number of idle
+ * dashboard event streams are opened (long-lived, blocked requests, like the
+ * screens during a shift change). Then concurrent clients loop through
+ * check-in, search and check-out for a fixed time, and the run reports
+ * throughput, latency percentiles and requests that timed out.
+ * Once the open streams reach the platform pool size, the platform mode has no
+ * threads left for REST calls and every request times out; the virtual mode
+ * keeps serving. Below that point, short in-memory requests can be faster
+ * on the platform pool, most visibly on few cores where client and server
+ * share the CPUs; run it on hardware like production's.
+ *
+ * java -cp target/benchmarks.jar spot.benchmarks.ApiLoadComparison [clients] [streams] [seconds] [poolSize]
+ * Defaults: 1000 clients, 100 streams, 10 seconds, pool of 200 platform threads.
+ */
+public class ApiLoadComparison {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final int WARMUP_SECONDS = 2;
+    private static final Pattern SPOT_NUMBER = Pattern.compile("\"spotNumber\":(\\d+)");
+    
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int streams = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int poolSize = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        
+        System.out.printf("%d clients, %d open event streams, %d s per mode, platform pool %d%n",
+                clients, streams, seconds, poolSize);
+        // Warm both modes up (JIT, connection setup) before measuring either
+        for (ParkingApiServer.ThreadMode mode : ParkingApiServer.ThreadMode.values()) {
+            run(mode, clients, Math.min(streams, poolSize - 1), WARMUP_SECONDS, poolSize, false);
+        }
+        
+        System.out.printf("%-9s %10s %9s %9s %9s %9s %9s%n",
+                "mode", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "timeouts");
+        for (ParkingApiServer.ThreadMode mode : ParkingApiServer.ThreadMode.values()) {
+            run(mode, clients, streams, seconds, poolSize, true);
+        }
+    }
+    
+    private static void run(ParkingApiServer.ThreadMode mode, int clients, int streams, int seconds, int poolSize,
+            boolean report) throws Exception {
+        ParkingApiServer server = new ParkingApiServer(new ParkingLot(clients), 0, mode, poolSize);
+        server.start();
+        String base = "http://localhost:" + server.getPort() + "/api/parking/";
+        
+        ArrayList<Socket> openStreams = new ArrayList<>(streams);
+        for (int i = 0; i < streams; i++) {
+            openStreams.add(openEventStream(server.getPort()));
+        }
+        
+        // Clients run on platform threads so they do not share the server's virtual thread carriers
+        HttpClient http = HttpClient.newHttpClient();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long started = System.nanoTime();
+        
+        ArrayList<Future<Result>> futures = new ArrayList<>(clients);
+        try (ExecutorService drivers = Executors.newThreadPerTaskExecutor(Thread.ofPlatform().factory())) {
+            for (int i = 0; i < clients; i++) {
+                String plate = "LOAD" + i;
+                futures.add(drivers.submit(() -> drive(http, base, plate, deadline)));
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        
+        LogLinearHistogram latencyMicros = new LogLinearHistogram();
+        long timeouts = 0;
+        for (Future<Result> future : futures) {
+            Result result = future.get();
+            latencyMicros.merge(result.latencyMicros);
+            timeouts += result.timeouts;
+        }
+        
+        if (report) {
+            System.out.printf("%-9s %10.0f %9.2f %9.2f %9.2f %9.2f %9d%n",
+                    mode.name().toLowerCase(), latencyMicros.getCount() / elapsedSeconds,
+                    latencyMicros.getQuantile(0.50) / 1000.0, latencyMicros.getQuantile(0.99) / 1000.0,
+                    latencyMicros.getQuantile(0.999) / 1000.0, latencyMicros.getMax() / 1000.0, timeouts);
+        }
+        
+        for (Socket stream : openStreams) {
+            stream.close();
+        }
+        server.stop();
+    }
+    
+    /**
+     * One client: check in, look the plate up, check out, until the deadline
+     */
+    private static Result drive(HttpClient http, String base, String plate, long deadline) {
+        Result result = new Result();
+        String checkIn = "tenantName=Load&vehiclePlate=" + plate;
+        while (System.nanoTime() < deadline) {
+            String ticket = call(http, post(base + "check-in", checkIn), result);
+            call(http, HttpRequest.newBuilder(URI.create(base + "search?vehiclePlate=" + plate))
+                    .timeout(REQUEST_TIMEOUT).build(), result);
+            
+            Matcher spot = ticket == null ? null : SPOT_NUMBER.matcher(ticket);
+            if (spot != null && spot.find()) {
+                call(http, post(base + "check-out", "spotNumber=" + spot.group(1)), result);
+            }
+        }
+        return result;
+    }
+    
+    private static HttpRequest post(String url, String form) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+    
+    private static String call(HttpClient http, HttpRequest request, Result result) {
+        long start = System.nanoTime();
+        try {
+            String body = http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            result.latencyMicros.record((System.nanoTime() - start) / 1000);
+            return body;
+        } catch (Exception e) {
+            result.timeouts++;
+            return null;
+        }
+    }
+    
+    /**
+     * Open an event stream and leave it idle; it holds a server-side request until closed
+     */
+    private static Socket openEventStream(int port) throws Exception {
+        Socket socket = new Socket("localhost", port);
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET /api/parking/events HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+    
+    private static final class Result {
+        final LogLinearHistogram latencyMicros = new LogLinearHistogram();
+        long timeouts;
+    }
+}
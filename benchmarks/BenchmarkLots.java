@@ -0,0 +1,26 @@
+package spot.benchmarks;
+
+/**
+ * Shared setup helpers for the parking benchmarks
+ */
+final class BenchmarkLots {
+    
+    private BenchmarkLots() {
+    }
+    
+    /**
+     * Number of spots to fill for an occupancy level (EMPTY, HALF or FULL)
+     */
+    static int occupiedCount(int lotSize, String occupancy) {
+        switch (occupancy) {
+            case "EMPTY":
+                return 0;
+            case "HALF":
+                return lotSize / 2;
+            case "FULL":
+                return lotSize;
+            default:
+                throw new IllegalArgumentException("Unknown occupancy: " + occupancy);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package spot.benchmarks;
+
+import spot.ConcurrentParkingLot;
+import spot.ParkingTicket;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress check: check-ins racing checkouts of the spots they are being given
+ * Gate threads keep parking vehicles from a small plate pool while exit
+ * threads check out random spots, so a checkout often hits a spot a moment
+ * after its ticket is published. Afterwards every spot is cleared and each
+ * plate must be free to park again; while running, searchVehicle must never
+ * return another plate's ticket. Exits with status 1 on any violation.
+ *
+ * java -cp target/benchmarks.jar spot.benchmarks.ConcurrentCheckoutRace [seconds] [spots] [threads]
+ * Defaults: 10 seconds on 4 spots with 16 gate and 16 exit threads; more threads
+ * than cores make preemption inside a check-in likely.
+ */
+public class ConcurrentCheckoutRace {
+    private static final int PLATES_PER_GATE = 8;
+    
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int spots = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        
+        ConcurrentParkingLot lot = new ConcurrentParkingLot(spots);
+        AtomicInteger violations = new AtomicInteger();
+        AtomicInteger checkIns = new AtomicInteger();
+        AtomicInteger checkOuts = new AtomicInteger();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(threads * 2);
+        
+        for (int t = 0; t < threads; t++) {
+            int gate = t;
+            Thread gateThread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    String plate = plate(gate, random.nextInt(PLATES_PER_GATE));
+                    if (lot.checkInVehicle("Tenant" + gate, plate)) {
+                        checkIns.incrementAndGet();
+                    }
+                    ParkingTicket found = lot.searchVehicle(plate);
+                    if (found != null && !found.getVehiclePlate().equals(plate)) {
+                        violations.incrementAndGet(); // plate mapped to a spot it does not hold
+                    }
+                    lot.processWaiting();
+                }
+                done.countDown();
+            });
+            Thread exitThread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    if (lot.checkOutVehicle(random.nextInt(1, spots + 1)) != null) {
+                        checkOuts.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+            gateThread.start();
+            exitThread.start();
+        }
+        done.await();
+        
+        for (int spot = 1; spot <= spots; spot++) {
+            lot.checkOutVehicle(spot);
+        }
+        if (lot.getOccupiedSpotsCount() != 0) {
+            violations.incrementAndGet();
+        }
+        // A plate left mapped to a lost spot could never park again
+        for (int gate = 0; gate < threads; gate++) {
+            for (int i = 0; i < PLATES_PER_GATE; i++) {
+                String plate = plate(gate, i);
+                if (lot.isVehicleParked(plate)) {
+                    violations.incrementAndGet();
+                    System.out.println("Stuck plate: " + plate);
+                }
+            }
+        }
+        
+        System.out.printf("%d check-ins, %d checkouts, %d violations%n",
+                checkIns.get(), checkOuts.get(), violations.get());
+        if (violations.get() != 0) {
+            System.exit(1);
+        }
+    }
+    
+    private static String plate(int gate, int index) {
+        return "G" + gate + "-" + index;
+    }
+}
@@ -0,0 +1,138 @@
+package spot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import spot.*;
+
+/**
+ * Multi-threaded JMH benchmarks for the gate-terminal engine
+ * Four threads hit one ConcurrentParkingLot, at the same lot sizes and
+ * occupancy levels as ParkingLotBenchmark. Each thread uses its own plates and
+ * its own share of the occupied spots. Mutating benchmarks undo their change
+ * (check-in is followed by a check-out and vice versa), so they measure the
+ * contended cycle while occupancy stays stable. The single-gate baseline for
+ * the same operations is ConcurrentParkingLotSingleGateBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConcurrentParkingLotBenchmark {
+    private static final int PLATE_POOL = 1024;
+    
+    @Param({"10", "10000", "1000000"})
+    int lotSize;
+    
+    @Param({"EMPTY", "HALF", "FULL"})
+    String occupancy;
+    
+    ConcurrentParkingLot lot;
+    int[] occupiedSpots;
+    String[] parkedPlates;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        lot = new ConcurrentParkingLot(lotSize);
+        int parked = BenchmarkLots.occupiedCount(lotSize, occupancy);
+        occupiedSpots = new int[Math.max(parked, 1)];
+        parkedPlates = new String[Math.max(parked, 1)];
+        
+        for (int i = 0; i < parked; i++) {
+            parkedPlates[i] = "PARK-" + i;
+            lot.checkInVehicle("Tenant " + (i % 500), parkedPlates[i]);
+            occupiedSpots[i] = lot.searchVehicle(parkedPlates[i]).getSpotNumber();
+        }
+        if (parked == 0) {
+            occupiedSpots[0] = 1;
+            parkedPlates[0] = "NOT-PARKED";
+        }
+    }
+    
+    /**
+     * Per-thread plates, spots and cursor, so threads never collide on the same vehicle or spot
+     */
+    @State(Scope.Thread)
+    public static class Gate {
+        private static int nextGate;
+        
+        String[] newPlates = new String[PLATE_POOL];
+        int[] ownSpots; // indexes into occupiedSpots
+        int cursor;
+        
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkParams params) {
+            int gate;
+            synchronized (Gate.class) {
+                gate = nextGate++;
+            }
+            for (int i = 0; i < PLATE_POOL; i++) {
+                newPlates[i] = "G" + gate + "-" + i;
+            }
+            
+            // Every threads-th occupied spot, starting at this gate's number
+            int spots = Math.max(BenchmarkLots.occupiedCount(
+                    Integer.parseInt(params.getParam("lotSize")), params.getParam("occupancy")), 1);
+            int threads = params.getThreads();
+            int first = gate % threads;
+            int owned = spots > first ? (spots - first + threads - 1) / threads : 0;
+            ownSpots = new int[Math.max(owned, 1)];
+            for (int i = 0; i < owned; i++) {
+                ownSpots[i] = first + i * threads;
+            }
+        }
+    }
+    
+    @Benchmark
+    public boolean checkInVehicle(Gate gate) {
+        String plate = gate.newPlates[gate.cursor++ & (PLATE_POOL - 1)];
+        boolean parked = lot.checkInVehicle("Visitor", plate);
+        
+        // Undo: free the spot again, or drop a waiting-list entry when the lot was full
+        if (parked) {
+            lot.checkOutVehicle(lot.searchVehicle(plate).getSpotNumber());
+        } else {
+            lot.processWaiting();
+        }
+        return parked;
+    }
+    
+    @Benchmark
+    public ParkingTicket checkOutVehicle(Gate gate) {
+        int spot = occupiedSpots[gate.ownSpots[gate.cursor++ % gate.ownSpots.length]];
+        ParkingTicket ticket = lot.checkOutVehicle(spot);
+        
+        // Undo: put the same ticket back on its spot
+        if (ticket != null) {
+            lot.restoreTicket(ticket);
+        }
+        return ticket;
+    }
+    
+    @Benchmark
+    public ParkingTicket searchVehicle(Gate gate) {
+        return lot.searchVehicle(parkedPlates[gate.cursor++ % parkedPlates.length]);
+    }
+    
+    @Benchmark
+    public int findAvailableSpot() {
+        return lot.findAvailableSpot();
+    }
+    
+    @Benchmark
+    public ArrayList<ParkingTicket> getAllParkedVehicles() {
+        return lot.getAllParkedVehicles();
+    }
+    
+    @Benchmark
+    public ArrayList<ParkingTicket> getParkedVehiclesRange() {
+        int from = lotSize / 2;
+        return lot.getParkedVehicles(from, from + 100);
+    }
+}
@@ -0,0 +1,13 @@
+package spot.benchmarks;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * ConcurrentParkingLotBenchmark with one gate thread
+ * Same lot sizes, occupancy levels and operations; the difference to the
+ * four-thread run is the cost of contention, the difference to
+ * ParkingLotBenchmark the cost of the atomics when nobody contends.
+ */
+@Threads(1)
+public class ConcurrentParkingLotSingleGateBenchmark extends ConcurrentParkingLotBenchmark {
+}
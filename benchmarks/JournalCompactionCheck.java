@@ -0,0 +1,132 @@
+package spot.benchmarks;
+
+import spot.ParkingJournal;
+import spot.ParkingLot;
+import spot.TicketDatabaseWriter;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Comparator;
+
+/**
+ * Check: the journal keeps shrinking while the write-behind database follows it
+ * Runs check-ins and check-outs through a journaled lot with a
+ * TicketDatabaseWriter attached, pacing the gates so the database keeps up.
+ * Afterwards a snapshot must exist, the journal must hold no more than about
+ * one compaction interval of records, and the database must show the same
+ * parked vehicles as the lot. A second run gives the writer a tiny queue and
+ * no pacing, so changes are dropped and must be caught up from the journal;
+ * its journal only shrinks at the next compaction after that, so size is not checked.
+ * Exits with status 1 otherwise.
+ *
+ * java -cp target/benchmarks.jar spot.benchmarks.JournalCompactionCheck [operations] [compactEvery]
+ * Defaults: 10000 operations, compaction every 100 records, on 200 spots.
+ */
+public class JournalCompactionCheck {
+    private static final int SPOTS = 200;
+    private static final int MAX_FRAME_BYTES = 128; // check-in frame with short tenant and plate
+    private static final long CATCH_UP_MILLIS = 10_000;
+    
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int compactEvery = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        
+        int failures = run(operations, compactEvery, TicketDatabaseWriter.DEFAULT_CAPACITY, true)
+                + run(operations, compactEvery, 16, false);
+        if (failures > 0) {
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+    
+    private static int run(int operations, int compactEvery, int capacity, boolean paced) throws Exception {
+        Path dir = Files.createTempDirectory("spot-compaction");
+        File snapshotFile = dir.resolve("parking_data.dat").toFile();
+        File journalFile = dir.resolve("parking_journal.log").toFile();
+        int failures = 0;
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:" + dir.resolve("tickets").toAbsolutePath())) {
+            ParkingLot parkingLot = new ParkingLot(SPOTS);
+            ParkingJournal journal = ParkingJournal.open(parkingLot, snapshotFile, journalFile, compactEvery, false);
+            TicketDatabaseWriter writer = TicketDatabaseWriter.open(connection, journal, snapshotFile, journalFile,
+                    capacity, TicketDatabaseWriter.DEFAULT_MAX_BATCH);
+            
+            int[] parked = new int[SPOTS];
+            int parkedCount = 0;
+            for (int i = 0; i < operations; i++) {
+                if (parkedCount < SPOTS / 2 || (i & 1) == 0) {
+                    String plate = "CP" + i;
+                    parkingLot.checkInVehicle("Tenant" + (i % 20), plate);
+                    parked[parkedCount++] = parkingLot.searchVehicle(plate).getSpotNumber();
+                } else {
+                    int index = (int) ((i * 2654435761L) % parkedCount);
+                    parkingLot.checkOutVehicle(parked[index]);
+                    parked[index] = parked[--parkedCount];
+                }
+                if (paced && i % (compactEvery / 2 + 1) == 0) {
+                    awaitStored(writer, journal.getSequence());
+                }
+            }
+            awaitStored(writer, journal.getSequence());
+            
+            System.out.printf("queue of %d%s: %d changes dropped, %d catch-ups from the journal%n",
+                    capacity, paced ? ", paced" : "", writer.getDroppedCount(), writer.getCatchUpCount());
+            if (!paced && writer.getDroppedCount() == 0) {
+                System.out.println("FAIL: the queue never filled up");
+                failures++;
+            }
+            if (writer.getDroppedCount() > 0 && writer.getCatchUpCount() == 0) {
+                System.out.println("FAIL: dropped changes were not caught up");
+                failures++;
+            }
+            
+            long journalBytes = journalFile.length();
+            long maxJournalBytes = (long) compactEvery * MAX_FRAME_BYTES;
+            System.out.printf("%d records, compaction every %d: journal %d bytes (limit %d), snapshot %s%n",
+                    journal.getSequence(), compactEvery, journalBytes, maxJournalBytes,
+                    snapshotFile.exists() ? snapshotFile.length() + " bytes" : "missing");
+            if (!snapshotFile.exists() || (paced && journalBytes > maxJournalBytes)) {
+                System.out.println("FAIL: journal was not compacted");
+                failures++;
+            }
+            
+            int activeRows = countActiveRows(connection);
+            System.out.printf("lot has %d parked, database has %d active%n", parkingLot.getOccupiedSpotsCount(), activeRows);
+            if (activeRows != parkingLot.getOccupiedSpotsCount()) {
+                System.out.println("FAIL: database differs from the lot");
+                failures++;
+            }
+            
+            writer.close();
+            journal.close();
+        } finally {
+            try (var files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+        return failures;
+    }
+    
+    private static void awaitStored(TicketDatabaseWriter writer, long sequence) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + CATCH_UP_MILLIS;
+        while (writer.getStoredSequence() < sequence) {
+            if (System.currentTimeMillis() > deadline) {
+                System.out.println("FAIL: database stuck at sequence " + writer.getStoredSequence() + " of " + sequence);
+                System.exit(1);
+            }
+            Thread.sleep(1);
+        }
+    }
+    
+    private static int countActiveRows(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM parking_ticket WHERE active")) {
+            result.next();
+            return result.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package spot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import spot.*;
+
+/**
+ * Single-threaded JMH benchmarks for ParkingLot core operations
+ * Every lot size is measured empty, half full and full. Mutating benchmarks
+ * undo their own change (check-in is followed by a check-out of the same spot
+ * and vice versa), so occupancy stays at the configured level across the run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParkingLotBenchmark {
+    private static final int PLATE_POOL = 1024;
+    
+    @Param({"10", "10000", "1000000"})
+    int lotSize;
+    
+    @Param({"EMPTY", "HALF", "FULL"})
+    String occupancy;
+    
+    ParkingLot lot;
+    int[] occupiedSpots;
+    String[] parkedPlates;
+    String[] newPlates;
+    int cursor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        lot = new ParkingLot(lotSize);
+        int parked = BenchmarkLots.occupiedCount(lotSize, occupancy);
+        occupiedSpots = new int[Math.max(parked, 1)];
+        parkedPlates = new String[Math.max(parked, 1)];
+        
+        for (int i = 0; i < parked; i++) {
+            String plate = "PARK-" + i;
+            lot.checkInVehicle("Tenant " + (i % 500), plate);
+            occupiedSpots[i] = lot.searchVehicle(plate).getSpotNumber();
+            parkedPlates[i] = plate;
+        }
+        if (parked == 0) {
+            occupiedSpots[0] = 1;
+            parkedPlates[0] = "NOT-PARKED";
+        }
+        
+        newPlates = new String[PLATE_POOL];
+        for (int i = 0; i < PLATE_POOL; i++) {
+            newPlates[i] = "NEW-" + i;
+        }
+    }
+    
+    @Benchmark
+    public boolean checkInVehicle() {
+        String plate = newPlates[cursor++ & (PLATE_POOL - 1)];
+        boolean parked = lot.checkInVehicle("Visitor", plate);
+        
+        // Undo: free the spot again, or drop the waiting-list entry when the lot was full
+        if (parked) {
+            lot.checkOutVehicle(lot.searchVehicle(plate).getSpotNumber());
+        } else {
+            lot.processWaiting();
+        }
+        return parked;
+    }
+    
+    @Benchmark
+    public ParkingTicket checkOutVehicle() {
+        int spot = occupiedSpots[cursor++ % occupiedSpots.length];
+        ParkingTicket ticket = lot.checkOutVehicle(spot);
+        
+        // Undo: put the same ticket back on its spot
+        if (ticket != null) {
+            lot.restoreTicket(ticket);
+        }
+        return ticket;
+    }
+    
+    @Benchmark
+    public ParkingTicket searchVehicle() {
+        return lot.searchVehicle(parkedPlates[cursor++ % parkedPlates.length]);
+    }
+    
+    @Benchmark
+    public int findAvailableSpot() {
+        return lot.findAvailableSpot();
+    }
+    
+    @Benchmark
+    public ArrayList<ParkingTicket> getAllParkedVehicles() {
+        return lot.getAllParkedVehicles();
+    }
+    
+    @Benchmark
+    public ArrayList<ParkingTicket> getParkedVehiclesRange() {
+        int from = lotSize / 2;
+        return lot.getParkedVehicles(from, from + 100);
+    }
+}
@@ -0,0 +1,165 @@
+package spot.benchmarks;
+
+import spot.LogLinearHistogram;
+import spot.ParkingJournal;
+import spot.ParkingLot;
+import spot.ParkingLotListener;
+import spot.ParkingTicket;
+import spot.TicketDatabaseWriter;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Comparator;
+
+/**
+ * Ticket persistence: one database commit per request against write-behind batches
+ * Both modes journal every change and store every ticket state in an H2
+ * file database. "per-request" upserts and commits inside the check-in or
+ * check-out call, like a repository save per web request; "write-behind"
+ * returns once the journal has the change and lets TicketDatabaseWriter
+ * store queued changes in JDBC batches. The run reports gate operations per
+ * second, the latency of each call, and for write-behind how long the
+ * database took to catch up at the end and the average batch size.
+ *
+ * java -cp target/benchmarks.jar spot.benchmarks.PersistenceComparison [operations] [spots]
+ * Defaults: 200000 operations (check-ins and check-outs) on 2000 spots.
+ */
+public class PersistenceComparison {
+    private static final String CREATE_TICKETS =
+            "CREATE TABLE IF NOT EXISTS parking_ticket ("
+            + "spot_number INT NOT NULL, check_in_millis BIGINT NOT NULL, "
+            + "tenant_name VARCHAR(255) NOT NULL, vehicle_plate VARCHAR(64) NOT NULL, "
+            + "check_out_millis BIGINT, active BOOLEAN NOT NULL, "
+            + "PRIMARY KEY (spot_number, check_in_millis, vehicle_plate))";
+    private static final String UPSERT_TICKET =
+            "MERGE INTO parking_ticket (spot_number, check_in_millis, tenant_name, vehicle_plate, "
+            + "check_out_millis, active) KEY (spot_number, check_in_millis, vehicle_plate) VALUES (?, ?, ?, ?, ?, ?)";
+    
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int spots = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        
+        System.out.printf("%d operations on %d spots, H2 file database%n", operations, spots);
+        // Warm both modes up before measuring either
+        run(false, operations / 10, spots, false);
+        run(true, operations / 10, spots, false);
+        
+        System.out.printf("%-13s %10s %9s %9s %9s %11s %9s%n",
+                "mode", "ops/s", "p50 us", "p99 us", "max us", "catch-up ms", "batch");
+        run(false, operations, spots, true);
+        run(true, operations, spots, true);
+    }
+    
+    private static void run(boolean writeBehind, int operations, int spots, boolean report) throws Exception {
+        Path dir = Files.createTempDirectory("spot-persistence");
+        File snapshotFile = dir.resolve("parking_data.dat").toFile();
+        File journalFile = dir.resolve("parking_journal.log").toFile();
+        Connection connection = DriverManager.getConnection("jdbc:h2:" + dir.resolve("tickets").toAbsolutePath());
+        
+        ParkingLot parkingLot = new ParkingLot(spots);
+        ParkingJournal journal = ParkingJournal.open(parkingLot, snapshotFile, journalFile,
+                ParkingJournal.DEFAULT_COMPACT_EVERY, false);
+        TicketDatabaseWriter writer = null;
+        if (writeBehind) {
+            writer = TicketDatabaseWriter.open(connection, journal, snapshotFile, journalFile,
+                    TicketDatabaseWriter.DEFAULT_CAPACITY, TicketDatabaseWriter.DEFAULT_MAX_BATCH);
+        } else {
+            parkingLot.addListener(new CommitPerRequest(connection));
+        }
+        
+        // Keep the lot about half full: park until then, afterwards alternate exits and entries
+        LogLinearHistogram latencyNanos = new LogLinearHistogram();
+        int[] parked = new int[spots];
+        int parkedCount = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            long start = System.nanoTime();
+            if (parkedCount < spots / 2 || (i & 1) == 0) {
+                String plate = "DB" + i;
+                parkingLot.checkInVehicle("Tenant" + (i % 50), plate);
+                parked[parkedCount++] = parkingLot.searchVehicle(plate).getSpotNumber();
+            } else {
+                int index = (int) ((i * 2654435761L) % parkedCount);
+                parkingLot.checkOutVehicle(parked[index]);
+                parked[index] = parked[--parkedCount];
+            }
+            latencyNanos.record(System.nanoTime() - start);
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        
+        long catchUpStart = System.nanoTime();
+        String batch = "-";
+        if (writer != null) {
+            writer.close(); // returns once everything queued is stored
+            batch = String.format("%.0f", writer.getWrittenCount() / (double) Math.max(1, writer.getFlushCount()));
+        } else {
+            connection.close();
+        }
+        double catchUpMillis = (System.nanoTime() - catchUpStart) / 1e6;
+        journal.close();
+        
+        if (report) {
+            System.out.printf("%-13s %10.0f %9.1f %9.1f %9.1f %11.1f %9s%n",
+                    writeBehind ? "write-behind" : "per-request", operations / elapsedSeconds,
+                    latencyNanos.getQuantile(0.50) / 1000.0, latencyNanos.getQuantile(0.99) / 1000.0,
+                    latencyNanos.getMax() / 1000.0, writeBehind ? catchUpMillis : 0.0, batch);
+        }
+        
+        try (var files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+    
+    /**
+     * Baseline: store and commit each ticket change before the gate call returns
+     */
+    private static final class CommitPerRequest implements ParkingLotListener {
+        private final Connection connection;
+        private final PreparedStatement upsert;
+        
+        CommitPerRequest(Connection connection) throws SQLException {
+            this.connection = connection;
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_TICKETS);
+            }
+            this.upsert = connection.prepareStatement(UPSERT_TICKET);
+        }
+        
+        @Override
+        public void onCheckIn(ParkingTicket ticket) {
+            save(ticket);
+        }
+        
+        @Override
+        public void onCheckOut(ParkingTicket ticket) {
+            save(ticket);
+        }
+        
+        private void save(ParkingTicket ticket) {
+            try {
+                upsert.setInt(1, ticket.getSpotNumber());
+                upsert.setLong(2, ticket.getCheckInMillis());
+                upsert.setString(3, ticket.getTenantName());
+                upsert.setString(4, ticket.getVehiclePlate());
+                if (ticket.getCheckOutMillis() == 0) {
+                    upsert.setNull(5, Types.BIGINT);
+                } else {
+                    upsert.setLong(5, ticket.getCheckOutMillis());
+                }
+                upsert.setBoolean(6, ticket.getCheckOutMillis() == 0);
+                upsert.executeUpdate();
+                connection.commit();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Error saving ticket", e);
+            }
+        }
+    }
+}
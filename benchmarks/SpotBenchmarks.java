@@ -0,0 +1,24 @@
+package spot.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar
+ * Runs the selected benchmarks (all by default) with the GC/allocation
+ * profiler always attached. Accepts the usual JMH command-line options,
+ * e.g. java -jar target/benchmarks.jar ParkingLotBenchmark -p lotSize=10000
+ */
+public class SpotBenchmarks {
+    
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}